@@ -0,0 +1,140 @@
+package mazeRunner.Core;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of each phase of world generation, i.e. building rooms, constructing the tile graph,
+ * running the masked Dijkstra's algorithm, connecting rooms by hallways and placing game objects,
+ * as well as generating a whole level. Each phase runs on the output of the previous phases for
+ * the same seed. Phases that draw on the tiles get a freshly generated input on every invocation.
+ *
+ * The size of the world is fixed by Engine.WORLD_WIDTH and Engine.WORLD_HEIGHT, so only the seed
+ * is varied.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GenerationBenchmark {
+
+    /** Seed of the world. */
+    @State(Scope.Thread)
+    public static class Seed {
+        @Param({"1", "42", "1234", "20211", "987654321"})
+        int seed;
+    }
+
+    /** Engine whose RNG is seeded but nothing has been generated. */
+    @State(Scope.Thread)
+    public static class Fresh {
+        Engine engine;
+
+        @Setup(Level.Invocation)
+        public void setup(Seed s) {
+            engine = seededEngine(s.seed);
+        }
+    }
+
+    /** Engine on which rooms have been built but not connected. */
+    @State(Scope.Thread)
+    public static class RoomsBuilt {
+        Engine engine;
+        ArrayList<Room> rooms;
+
+        @Setup(Level.Invocation)
+        public void setup(Seed s) {
+            engine = seededEngine(s.seed);
+            rooms = Room.buildRooms(engine);
+        }
+    }
+
+    /** Engine on which rooms have been built and connected. */
+    @State(Scope.Thread)
+    public static class RoomsConnected {
+        Engine engine;
+        ArrayList<Room> rooms;
+
+        @Setup(Level.Invocation)
+        public void setup(Seed s) {
+            engine = seededEngine(s.seed);
+            rooms = Room.buildRooms(engine);
+            Room.connectRooms(engine, rooms);
+        }
+    }
+
+    /** Tile graph over rooms of a world. Not modified by the benchmarks using it. */
+    @State(Scope.Thread)
+    public static class Graph {
+        ArrayList<Room> rooms;
+        TileGraph graph;
+        /** Vertex at center of the first room. */
+        int srcV;
+
+        @Setup(Level.Trial)
+        public void setup(Seed s) {
+            rooms = Room.buildRooms(seededEngine(s.seed));
+            graph = new TileGraph(rooms);
+            Position center = rooms.get(0).center;
+            srcV = center.getX() + Engine.WORLD_WIDTH * center.getY();
+        }
+    }
+
+    /** Return an engine whose RNG is seeded in the same way as Engine.runEngine. */
+    static Engine seededEngine(int seed) {
+        Engine engine = new Engine();
+        engine.random = new Random(seed);
+        return engine;
+    }
+
+    @Benchmark
+    public ArrayList<Room> buildRooms(Fresh f) {
+        return Room.buildRooms(f.engine);
+    }
+
+    @Benchmark
+    public TileGraph tileGraph(Graph g) {
+        return new TileGraph(g.rooms);
+    }
+
+    /** Single-source shortest paths from the center of the first room. Nothing is masked. */
+    @Benchmark
+    public DijkstraUndirMaskedSP dijkstra(Graph g) {
+        return new DijkstraUndirMaskedSP(g.graph, g.srcV, new ArrayList<>(), new HashSet<>());
+    }
+
+    @Benchmark
+    public Engine connectRooms(RoomsBuilt r) {
+        Room.connectRooms(r.engine, r.rooms);
+        return r.engine;
+    }
+
+    @Benchmark
+    public GameMechanics gameMechanics(RoomsConnected r) {
+        return new GameMechanics(r.engine, r.rooms, "bench", GameMechanics.INIT_PLAYER_HEALTH);
+    }
+
+    @Benchmark
+    public Engine fullLevel(Seed s) {
+        Engine engine = new Engine();
+        engine.runEngine(s.seed, "bench", GameMechanics.INIT_PLAYER_HEALTH);
+        return engine;
+    }
+
+    /** Run the benchmarks with the GC profiler, which reports allocation rate per operation. */
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(GenerationBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,198 @@
+package mazeRunner.Core;
+
+import mazeRunner.TileEngine.TETile;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+import static mazeRunner.Core.Engine.*;
+
+/**
+ * Benchmarks of the work done in a turn of gameplay, i.e. moving player, computing the field of
+ * view, teleporting, looking up game objects by position, moving monsters and converting tiles to
+ * a string. Each benchmark runs on a pre-generated world. Density is passed to
+ * Engine.objectDensity and scales the numbers of torches, breads and portal pairs, so that the
+ * cost of looking up objects can be measured as the number of objects grows.
+ *
+ * Benchmarks that change the game state undo their changes within the same operation so that
+ * every operation starts from the same state.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TurnBenchmark {
+
+    /** Seed and object density of the world. */
+    @State(Scope.Thread)
+    public static class WorldParams {
+        @Param({"1", "42", "1234"})
+        int seed;
+        /** Multiplier of the numbers of game objects. */
+        @Param({"1", "4", "16"})
+        double density;
+    }
+
+    /** World in which player stands on a floor tile with another floor tile to its right. */
+    @State(Scope.Thread)
+    public static class MoveWorld {
+        Engine engine;
+        GameMechanics gm;
+
+        @Setup(Level.Trial)
+        public void setup(WorldParams p) {
+            engine = generate(p.seed, p.density);
+            gm = engine.gameMech;
+            for (int x = 1; x < WORLD_WIDTH - 1; x += 1) {
+                for (int y = 1; y < WORLD_HEIGHT - 1; y += 1) {
+                    if (engine.getTilePattern(x, y).isSameType(patternFloor)
+                            && engine.getTilePattern(x + 1, y).isSameType(patternFloor)) {
+                        gm.player.updateObjectPosition(engine, new Position(x, y), patternFloor);
+                        return;
+                    }
+                }
+            }
+            throw new IllegalStateException("No pair of adjacent floor tiles");
+        }
+    }
+
+    /** World in which player stands on a portal. */
+    @State(Scope.Thread)
+    public static class PortalWorld {
+        Engine engine;
+        GameMechanics gm;
+        /** Position of the first portal of the last portal pair. */
+        Position portalPos;
+
+        @Setup(Level.Trial)
+        public void setup(WorldParams p) {
+            engine = generate(p.seed, p.density);
+            gm = engine.gameMech;
+            for (PortalPair pp : gm.portalPairs) {
+                portalPos = pp.getPortal().pos;
+            }
+            gm.player.updateObjectPosition(engine, portalPos, patternPortal);
+        }
+    }
+
+    /** World in which nothing is changed by the benchmarks. */
+    @State(Scope.Thread)
+    public static class StaticWorld {
+        Engine engine;
+        GameMechanics gm;
+        /** Buffer for field of view. */
+        TETile[][] fovBuffer;
+        /** Position of the bread found last when iterating over breads. */
+        Position breadPos;
+        /** Position of the portal found last when iterating over portal pairs. */
+        Position portalPos;
+
+        @Setup(Level.Trial)
+        public void setup(WorldParams p) {
+            engine = generate(p.seed, p.density);
+            gm = engine.gameMech;
+            gm.lightsOn = false;
+            fovBuffer = new TETile[WORLD_WIDTH][WORLD_HEIGHT];
+            for (Bread b : gm.breads) {
+                breadPos = b.pos;
+            }
+            for (PortalPair pp : gm.portalPairs) {
+                portalPos = pp.getOtherPortal().pos;
+            }
+        }
+    }
+
+    /** World with monsters, which have closed in on player after the first ticks. */
+    @State(Scope.Thread)
+    public static class MobWorld {
+        @Param({"16", "128", "256"})
+        int monsters;
+        Engine engine;
+        GameMechanics gm;
+
+        @Setup(Level.Trial)
+        public void setup(WorldParams p) {
+            engine = new Engine();
+            engine.objectDensity = p.density;
+            engine.monsterCount = monsters;
+            engine.runEngine(p.seed, "bench", GameMechanics.INIT_PLAYER_HEALTH);
+            gm = engine.gameMech;
+        }
+    }
+
+    /**
+     * Generate a world.
+     * @param seed seed of the world
+     * @param density multiplier of the numbers of game objects
+     * @return engine holding the world
+     */
+    static Engine generate(int seed, double density) {
+        Engine engine = new Engine();
+        engine.objectDensity = density;
+        engine.runEngine(seed, "bench", GameMechanics.INIT_PLAYER_HEALTH);
+        return engine;
+    }
+
+    /** Player moves right and back. */
+    @Benchmark
+    @OperationsPerInvocation(2)
+    public int move(MoveWorld w) {
+        w.gm.player.health = GameMechanics.INIT_PLAYER_HEALTH;
+        return w.gm.moveGameObject(w.gm.player, 1, 0) + w.gm.moveGameObject(w.gm.player, -1, 0);
+    }
+
+    /** Field of view written to a buffer reused across turns. */
+    @Benchmark
+    public int fieldOfView(StaticWorld w) {
+        return w.gm.fieldOfView(w.engine.tiles, w.fovBuffer).length;
+    }
+
+    /** Field of view in a newly allocated array, as before buffers were reused across turns. */
+    @Benchmark
+    public TETile[][] fieldOfViewAllocating(StaticWorld w) {
+        return w.gm.fieldOfView(w.engine.tiles);
+    }
+
+    /** Player teleports to the other side of a portal and back. */
+    @Benchmark
+    @OperationsPerInvocation(2)
+    public int teleport(PortalWorld w) {
+        w.gm.player.health = GameMechanics.INIT_PLAYER_HEALTH;
+        return w.gm.teleport() + w.gm.teleport();
+    }
+
+    /** All monsters take their turns, without a time budget. */
+    @Benchmark
+    public int mobTick(MobWorld w) {
+        w.gm.player.health = GameMechanics.INIT_PLAYER_HEALTH;
+        return w.engine.mobs.tick(w.gm, 0);
+    }
+
+    @Benchmark
+    public Bread findBreadFmPos(StaticWorld w) {
+        return w.gm.findBreadFmPos(w.breadPos);
+    }
+
+    @Benchmark
+    public PortalPair findPortalPairFmPos(StaticWorld w) {
+        return w.gm.findPortalPairFmPos(w.portalPos);
+    }
+
+    @Benchmark
+    public String tilesToString(StaticWorld w) {
+        return TETile.toString(w.engine.tiles);
+    }
+
+    /** Run the benchmarks with the GC profiler, which reports bytes allocated per operation. */
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(TurnBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
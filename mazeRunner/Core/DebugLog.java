@@ -0,0 +1,193 @@
+package mazeRunner.Core;
+
+import mazeRunner.TileEngine.TETile;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Debug output of the game. Messages have a level and are only written if their level is at least
+ * the level set by the system property "mazeRunner.log" (TRACE, DEBUG, INFO, WARN or OFF; WARN by
+ * default), so that sessions pay nothing for debug output they do not ask for. Messages are built
+ * lazily and written to standard error by a background thread, so the game never waits for output.
+ * If output falls behind by more than QUEUE_CAPACITY messages, further messages are dropped and
+ * counted.
+ *
+ * The map can also be dumped after every turn to a gzip-compressed text file named by the system
+ * property "mazeRunner.log.mapDump". Only the characters of the tiles are copied on the thread of
+ * the game; the text is built and compressed in the background.
+ */
+final class DebugLog {
+    /** Levels of messages, from the most to the least verbose. */
+    enum Level { TRACE, DEBUG, INFO, WARN, OFF }
+
+    /** Maximum number of messages waiting to be written. */
+    static final int QUEUE_CAPACITY = 1024;
+
+    /** Level below which messages are discarded. */
+    private static volatile Level level = Level.WARN;
+    /** Destination of messages. */
+    private static volatile Writer out;
+    /** Destination of map dumps, or null if maps are not dumped. */
+    private static volatile Writer mapDump;
+    /** Thread writing messages and map dumps. */
+    private static volatile ThreadPoolExecutor writer;
+    /** Number of messages and map dumps dropped because the queue was full. */
+    private static final LongAdder DROPPED = new LongAdder();
+
+    static {
+        openFromProperties(false);
+        Runtime.getRuntime().addShutdownHook(new Thread(DebugLog::close));
+    }
+
+    private DebugLog() {
+    }
+
+    /**
+     * Set the level and destinations of debug output from the system properties again, e.g. after
+     * a test has called open(). Map dumps are appended to the file, as another gzip member.
+     */
+    static synchronized void reset() {
+        openFromProperties(true);
+    }
+
+    /** Set the level and destinations of debug output from the system properties. */
+    private static void openFromProperties(boolean appendMapDump) {
+        String mapDumpFile = System.getProperty("mazeRunner.log.mapDump");
+        try {
+            open(Level.valueOf(System.getProperty("mazeRunner.log", "WARN").toUpperCase()),
+                    new OutputStreamWriter(System.err, StandardCharsets.UTF_8),
+                    mapDumpFile == null ? null : new FileOutputStream(mapDumpFile, appendMapDump));
+        } catch (IOException excp) {
+            throw new IllegalArgumentException(excp.getMessage());
+        }
+    }
+
+    /**
+     * Set the level and destinations of debug output, closing the previous ones once their pending
+     * output is written.
+     * @param newLevel level below which messages are discarded
+     * @param newOut destination of messages
+     * @param newMapDump destination of gzip-compressed map dumps, or null to dump no map
+     */
+    static synchronized void open(Level newLevel, Writer newOut, OutputStream newMapDump)
+            throws IOException {
+        close();
+        level = newLevel;
+        out = newOut;
+        mapDump = newMapDump == null ? null : new BufferedWriter(new OutputStreamWriter(
+                new GZIPOutputStream(newMapDump), StandardCharsets.UTF_8));
+        writer = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(QUEUE_CAPACITY), r -> {
+                    Thread t = new Thread(r, "debug-log");
+                    t.setDaemon(true);
+                    return t;
+                }, (r, executor) -> DROPPED.increment());
+    }
+
+    /** Write pending output and close the destinations, except standard error. */
+    static synchronized void close() {
+        if (writer == null) {
+            return;
+        }
+        writer.shutdown();
+        try {
+            writer.awaitTermination(1, TimeUnit.SECONDS);
+            out.flush();
+            if (mapDump != null) {
+                mapDump.close();
+            }
+        } catch (InterruptedException excp) {
+            Thread.currentThread().interrupt();
+        } catch (IOException excp) {
+            throw new IllegalArgumentException(excp.getMessage());
+        }
+        writer = null;
+    }
+
+    /** Whether messages of a level are written. */
+    static boolean enabled(Level l) {
+        return l != Level.OFF && l.compareTo(level) >= 0;
+    }
+
+    /** Number of messages and map dumps dropped because output fell behind. */
+    static long dropped() {
+        return DROPPED.sum();
+    }
+
+    /** Write a message if its level is enabled. */
+    static void log(Level l, String message) {
+        if (enabled(l)) {
+            submit(out, l + " " + message + "\n");
+        }
+    }
+
+    /** Build and write a message if its level is enabled. */
+    static void log(Level l, Supplier<String> message) {
+        if (enabled(l)) {
+            String m = message.get();
+            submit(out, l + " " + m + "\n");
+        }
+    }
+
+    /**
+     * Dump the map to the map dump file if one is set. Rows are written from the top, as in
+     * TETile.toString(), after a line holding the level and turn.
+     * @param gameLevel current level
+     * @param turn current turn
+     * @param tiles tile array representing game state
+     */
+    static void dumpMap(int gameLevel, int turn, TETile[][] tiles) {
+        if (mapDump == null) {
+            return;
+        }
+        int width = tiles.length;
+        int height = tiles[0].length;
+        char[] text = new char[(width + 1) * height];
+        int i = 0;
+        for (int y = height - 1; y >= 0; y -= 1) {
+            for (int x = 0; x < width; x += 1) {
+                text[i] = tiles[x][y].character();
+                i += 1;
+            }
+            text[i] = '\n';
+            i += 1;
+        }
+        Writer dump = mapDump;
+        ThreadPoolExecutor w = writer;
+        if (w == null) {
+            return;
+        }
+        w.execute(() -> {
+            try {
+                dump.write("# level " + gameLevel + " turn " + turn + "\n");
+                dump.write(text);
+            } catch (IOException excp) {
+                throw new IllegalArgumentException(excp.getMessage());
+            }
+        });
+    }
+
+    private static void submit(Writer dest, String text) {
+        ThreadPoolExecutor w = writer;
+        if (w == null) {
+            return;
+        }
+        w.execute(() -> {
+            try {
+                dest.write(text);
+                if (w.getQueue().isEmpty()) {
+                    dest.flush();
+                }
+            } catch (IOException excp) {
+                throw new IllegalArgumentException(excp.getMessage());
+            }
+        });
+    }
+}
@@ -42,11 +42,14 @@ public class DijkstraUndirMaskedSP {
         // relax vertices in order of distance from s
         pq = new IndexMinPQ<>(g.V());
         pq.insert(s, distTo[s]);
+        int expanded = 0;
         while (!pq.isEmpty()) {
             int v = pq.delMin();
+            expanded += 1;
             for (Edge e : g.adj(v))
                 relax(e, v, inaccessibleVertices);
         }
+        Metrics.add(Metrics.Counter.DIJKSTRA_VERTICES_EXPANDED, expanded);
 
         // check optimality conditions
         assert check(g, s);
@@ -0,0 +1,207 @@
+package mazeRunner.Core;
+
+import mazeRunner.TileEngine.TETile;
+
+import java.util.Arrays;
+
+import static mazeRunner.Core.Engine.WORLD_HEIGHT;
+import static mazeRunner.Core.Engine.WORLD_WIDTH;
+
+/**
+ * Distance fields of a level, i.e. the number of steps from every tile to the exit, to the
+ * nearest bread and to the nearest portal, so that hints, AI opponents and difficulty scores can
+ * read distances in constant time instead of searching for paths. Fields are computed by
+ * multi-source breadth-first searches in which player can teleport between the two sides of a
+ * portal pair in one step, and which do not continue past the exit. Buffers are allocated once and
+ * reused for every level.
+ *
+ * Distances to the nearest bread are updated incrementally when a bread is eaten: only tiles whose
+ * nearest bread was the eaten one are searched again.
+ */
+class DistanceFields {
+    /** Distance of a tile from which the target cannot be reached. */
+    static final int UNREACHABLE = GridBfs.UNREACHABLE;
+    /** Number of steps taken by teleporting. */
+    static final int TELEPORT_COST = 1;
+    /** Number of tiles. */
+    private static final int N = WORLD_WIDTH * WORLD_HEIGHT;
+
+    /** Number of steps from each tile to the exit, indexed by x + y * WORLD_WIDTH. */
+    final int[] toExit = new int[N];
+    /** Number of steps from each tile to the nearest bread. */
+    final int[] toBread = new int[N];
+    /** Number of steps from each tile to the nearest portal, plus TELEPORT_COST, i.e. number of
+     * steps until player can be teleported. */
+    final int[] toPortal = new int[N];
+    /** Tile of the nearest bread of each tile, or -1 if no bread can be reached. */
+    private final int[] nearestBread = new int[N];
+    /** Circular queue of tiles to visit. */
+    private final int[] queue = new int[N];
+    /** Whether each tile is in queue. */
+    private final boolean[] queued = new boolean[N];
+    /** Owner array for fields that do not track the nearest source. Never read. */
+    private final int[] noOwner = new int[N];
+    private int head;
+    private int size;
+
+    /** Tiles of the level. */
+    private TETile[][] tiles;
+    /** Game mechanics of the level. */
+    private GameMechanics gm;
+
+    /**
+     * Compute all distance fields of a level.
+     * @param tiles tile array representing game state
+     * @param gm game mechanics of the level
+     */
+    void compute(TETile[][] tiles, GameMechanics gm) {
+        this.tiles = tiles;
+        this.gm = gm;
+
+        Arrays.fill(toExit, UNREACHABLE);
+        push(toExit, noOwner, GridBfs.cellOf(gm.exit), 0, -1);
+        search(toExit, noOwner);
+
+        Arrays.fill(toBread, UNREACHABLE);
+        Arrays.fill(nearestBread, -1);
+        for (Bread b : gm.breads) {
+            int c = GridBfs.cellOf(b.pos);
+            push(toBread, nearestBread, c, 0, c);
+        }
+        search(toBread, nearestBread);
+
+        Arrays.fill(toPortal, UNREACHABLE);
+        for (PortalPair pp : gm.portalPairs) {
+            push(toPortal, noOwner, GridBfs.cellOf(pp.getPortal().pos), TELEPORT_COST, -1);
+            push(toPortal, noOwner, GridBfs.cellOf(pp.getOtherPortal().pos), TELEPORT_COST, -1);
+        }
+        search(toPortal, noOwner);
+    }
+
+    /**
+     * Update distances to the nearest bread after a bread is eaten. Tiles whose nearest bread is
+     * the eaten one are reset and searched again from the tiles bordering them.
+     * @param pos position of the bread eaten
+     */
+    void breadEaten(Position pos) {
+        int eaten = GridBfs.cellOf(pos);
+        for (int c = 0; c < N; c += 1) {
+            if (nearestBread[c] == eaten) {
+                toBread[c] = UNREACHABLE;
+                nearestBread[c] = -1;
+            }
+        }
+        for (int c = 0; c < N; c += 1) {
+            if (toBread[c] != UNREACHABLE && bordersReset(c)) {
+                enqueue(c);
+            }
+        }
+        search(toBread, nearestBread);
+    }
+
+    /** Whether tile c has a walkable neighbour, including the other side of a portal, whose
+     * distance to bread has been reset. */
+    private boolean bordersReset(int c) {
+        int x = c % WORLD_WIDTH;
+        int y = c / WORLD_WIDTH;
+        if (isReset(x + 1, y) || isReset(x - 1, y) || isReset(x, y + 1) || isReset(x, y - 1)) {
+            return true;
+        }
+        int there = otherSideOfPortal(c);
+        return there >= 0 && isReset(there % WORLD_WIDTH, there / WORLD_WIDTH);
+    }
+
+    /** Return the tile of the other side of the portal at tile c, or -1 if there is no portal at
+     * tile c. Portals are found through the object index, so a portal is found even when player
+     * stands on it. */
+    private int otherSideOfPortal(int c) {
+        GameObject go = gm.objectAt(c);
+        if (!(go instanceof PortalPair.Portal)) {
+            return -1;
+        }
+        PortalPair pp = ((PortalPair.Portal) go).getPair();
+        return GridBfs.cellOf(pp.getPortal() == go ? pp.getOtherPortal().pos : pp.getPortal().pos);
+    }
+
+    private boolean isReset(int x, int y) {
+        return x >= 0 && x < WORLD_WIDTH && y >= 0 && y < WORLD_HEIGHT
+                && toBread[GridBfs.cellOf(x, y)] == UNREACHABLE
+                && GridBfs.isWalkable(tiles[x][y]);
+    }
+
+    /** Number of steps from a position to the exit, or UNREACHABLE. */
+    int distToExit(Position pos) {
+        return toExit[GridBfs.cellOf(pos)];
+    }
+
+    /** Number of steps from a position to the nearest bread, or UNREACHABLE. */
+    int distToBread(Position pos) {
+        return toBread[GridBfs.cellOf(pos)];
+    }
+
+    /** Number of steps from a position until player can be teleported, or UNREACHABLE. */
+    int distToPortal(Position pos) {
+        return toPortal[GridBfs.cellOf(pos)];
+    }
+
+    /** Set the distance of source tile c unless it is already shorter, and queue it. */
+    private void push(int[] dist, int[] owner, int c, int d, int source) {
+        if (dist[c] == UNREACHABLE || d < dist[c]) {
+            dist[c] = d;
+            owner[c] = source;
+        }
+        enqueue(c);
+    }
+
+    /** Add tile c to the queue unless it is already there. */
+    private void enqueue(int c) {
+        if (!queued[c]) {
+            queued[c] = true;
+            queue[(head + size) % N] = c;
+            size += 1;
+        }
+    }
+
+    /**
+     * Visit queued tiles until the queue is empty, lowering the distances of their neighbours.
+     * Tiles whose distance is lowered after they have been visited are queued again, so the
+     * search is correct for sources at different distances.
+     */
+    private void search(int[] dist, int[] owner) {
+        while (size > 0) {
+            int v = queue[head];
+            head = (head + 1) % N;
+            size -= 1;
+            queued[v] = false;
+            int x = v % WORLD_WIDTH;
+            int y = v / WORLD_WIDTH;
+            int d = dist[v] + 1;
+            if (tiles[x][y].isSameType(Engine.patternExit) && dist[v] > 0) {
+                continue;
+            }
+            int there = otherSideOfPortal(v);
+            if (there >= 0) {
+                relax(dist, owner, there % WORLD_WIDTH, there / WORLD_WIDTH,
+                        dist[v] + TELEPORT_COST, owner[v]);
+            }
+            relax(dist, owner, x + 1, y, d, owner[v]);
+            relax(dist, owner, x - 1, y, d, owner[v]);
+            relax(dist, owner, x, y + 1, d, owner[v]);
+            relax(dist, owner, x, y - 1, d, owner[v]);
+        }
+    }
+
+    /** Lower the distance of the tile at (x, y) to d if it is walkable and d is shorter. */
+    private void relax(int[] dist, int[] owner, int x, int y, int d, int source) {
+        if (x < 0 || x >= WORLD_WIDTH || y < 0 || y >= WORLD_HEIGHT
+                || !GridBfs.isWalkable(tiles[x][y])) {
+            return;
+        }
+        int w = GridBfs.cellOf(x, y);
+        if (dist[w] == UNREACHABLE || d < dist[w]) {
+            dist[w] = d;
+            owner[w] = source;
+            enqueue(w);
+        }
+    }
+}
@@ -1,6 +1,5 @@
 package mazeRunner.Core;
 
-import mazeRunner.TileEngine.TERenderer;
 import mazeRunner.TileEngine.TETile;
 import edu.princeton.cs.introcs.StdDraw;
 
@@ -11,6 +10,8 @@ import java.time.format.FormatStyle;
 
 import static mazeRunner.Core.Engine.WORLD_HEIGHT;
 import static mazeRunner.Core.Engine.WORLD_WIDTH;
+import static mazeRunner.Core.Engine.WORLD_XOFFSET;
+import static mazeRunner.Core.Engine.WORLD_YOFFSET;
 
 public class DrawingUtils {
     /** Coordinates of center, half-width and half-height of the 'New Game' option box on menu. */
@@ -129,8 +130,31 @@ public class DrawingUtils {
         drawText(x, y, str);
     }
 
-    static void drawGameState(TERenderer ter, TETile[][] tiles) {
-        ter.renderFrame(tiles);
+    /**
+     * Draw a frame from a snapshot published by the simulation thread, with player drawn between
+     * their previous and current positions. See WorldSnapshot.interpolatedPlayerPos().
+     * @param snapshot snapshot of the game state
+     * @param alpha fraction of a tick elapsed since the snapshot was taken, between 0 and 1
+     */
+    static void drawSnapshot(WorldSnapshot snapshot, double alpha) {
+        GameEvents.RenderFrame event = new GameEvents.RenderFrame();
+        event.begin();
+        long start = Metrics.start();
+        TETile[][] tiles = snapshot.tiles;
+        StdDraw.clear(Color.BLACK);
+        for (int x = 0; x < tiles.length; x += 1) {
+            for (int y = 0; y < tiles[0].length; y += 1) {
+                TETile t = snapshot.playerPos.getX() == x && snapshot.playerPos.getY() == y
+                        ? snapshot.underPlayer : tiles[x][y];
+                t.draw(x + WORLD_XOFFSET, y + WORLD_YOFFSET);
+            }
+        }
+        double[] playerXY = snapshot.interpolatedPlayerPos(alpha);
+        snapshot.playerAvatar.draw(playerXY[0] + WORLD_XOFFSET, playerXY[1] + WORLD_YOFFSET);
+        StdDraw.show();
+        Metrics.stop(Metrics.Timer.RENDER, start);
+        event.cells = tiles.length * tiles[0].length;
+        event.commit();
     }
 
     /**
@@ -8,10 +8,15 @@ import mazeRunner.TileEngine.Tileset;
 import edu.princeton.cs.introcs.StdDraw;
 
 import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.NoSuchElementException;
 import java.util.Random;
+import java.util.concurrent.locks.LockSupport;
 
 import static mazeRunner.Core.PersistenceUtils.*;
 
@@ -28,45 +33,126 @@ public class Engine {
     static final int WORLD_XOFFSET = 0;
     /** Y-axis distance between bottom of display window and bottom of frame to draw tiles. */
     static final int WORLD_YOFFSET = 2;
+    /** Version of the world generator. Bump whenever the same seed may generate a different world,
+     * so that recorded replays are not replayed against a different world. */
+    static final int GENERATOR_VERSION = 3;
 
     static final TETile patternWall = Tileset.TREE;
     static final TETile patternFloor = Tileset.SOIL;
-    static TETile patternPlayerAvatar = Tileset.AVATAR_LEFT;
     static final TETile patternExit = Tileset.LOCKED_DOOR;
     static final TETile patternTorch = Tileset.TORCH;
     static final TETile patternBread = Tileset.BREAD;
     static final TETile patternPortal = Tileset.PORTAL;
+    static final TETile patternMonster = Tileset.MONSTER;
 
     /** Current working directory */
     static final File CWD = new File(System.getProperty("user.dir"));
     /** Directory for saving and loading game. */
     static final File GAMESAVE = join(CWD, "mazeRunner", ".gamesave");
+    /** Whether the game runs in real time, i.e. advances without waiting for keys, instead of
+     * turn by turn. Set by the system property "mazeRunner.realTime". See RealTimeLoop. */
+    static final boolean REAL_TIME = Boolean.getBoolean("mazeRunner.realTime");
+    /** File that new turn-based games are recorded to as a replay log, or null. Set by the
+     * system property "mazeRunner.record". Each new game overwrites the file. See ReplayDriver. */
+    static final String RECORD_FILE = System.getProperty("mazeRunner.record");
+    /** Column of empty tiles shared by engines until they generate or load a level. Never
+     * changed. */
+    private static final TETile[] EMPTY_COLUMN = setTilesToBackground(
+            new TETile[1][WORLD_HEIGHT])[0];
 
     /** RNG */
     Random random;
     /** 2D array of tiles representing game state. */
     TETile[][] tiles;
+    /** Whether each column of tiles belongs to this engine. A column that does not is shared,
+     * e.g. with a LevelCache entry, and is copied before a tile in it is first changed. */
+    private final boolean[] ownColumn = new boolean[WORLD_WIDTH];
     /** Renderer for tiles. */
     TERenderer ter = new TERenderer();
     /** Object that controls operations and interactions of game objects */
     GameMechanics gameMech;
     /** Tracks game progress. Do not reset when loading a game. */
     int level;
-    /** Description of tile at cursor. */
-    String tileDescriptionAtCursor = "";
-
-    /** Constructor for Engine objects. Initialize the game state with empty tiles. */
+    /** Avatar of player. Flips with the direction player last moved in. */
+    TETile patternPlayerAvatar = Tileset.AVATAR_LEFT;
+    /** Buffer for the tiles within field of view, allocated when first needed. Reused across
+     * turns and levels. */
+    private TETile[][] fovTiles;
+    /** Multiplier of the numbers of torches, breads and portals placed on each level. */
+    double objectDensity = GameMechanics.DEFAULT_OBJECT_DENSITY;
+    /** Minimum number of steps from player to exit on each level, or 0 for no minimum. */
+    int minExitSteps = 0;
+    /** What to do with a generated level that cannot be fully played. */
+    LevelVerifier.Policy verifyPolicy = LevelVerifier.Policy.REPORT;
+    /** Result of checking the current level, or null if levels are not checked. */
+    LevelVerifier.Report levelReport;
+    /** Buffers for distance fields of the current level, allocated when first needed. See
+     * GameMechanics.distanceFields(). */
+    DistanceFields distanceFields;
+    /** Number of monsters placed on each level. */
+    int monsterCount = 0;
+    /** Time budget for monsters to take their turns after each turn of player, or 0 for no
+     * budget. 0 unless the game runs in real time, since a budget makes which monsters move
+     * depend on the speed of the machine. See MobScheduler. */
+    long mobBudgetNanos = 0;
+    /** Moves monsters of the current level. */
+    final MobScheduler mobs = new MobScheduler();
+    /** Generates the next level in the background, or null to generate it when player reaches
+     * the exit. Only set for interactive games. */
+    LevelPrefetcher prefetcher;
+    /** Cache levels are restored from and added to, or null to generate every level. */
+    LevelCache levelCache;
+    /** Seed of the game being played if it was started from the menu, or null if it was loaded,
+     * in which case it cannot be recorded. */
+    private Integer newGameSeed;
+
+    /** States of the interactive game loop. */
+    enum GameState { MENU, PLAYING, GAME_OVER, EXIT }
+
+    /** Constructor for Engine objects. Initialize the game state with empty tiles, which share
+     * one column until they are changed. */
     public Engine() {
         this.level = 1;
-        this.tiles = setTilesToBackground(new TETile[WORLD_WIDTH][WORLD_HEIGHT]);
+        this.tiles = new TETile[WORLD_WIDTH][];
+        Arrays.fill(tiles, EMPTY_COLUMN);
+    }
+
+    /** Buffer for the tiles within field of view. */
+    TETile[][] fovTiles() {
+        if (fovTiles == null) {
+            fovTiles = new TETile[WORLD_WIDTH][WORLD_HEIGHT];
+        }
+        return fovTiles;
     }
 
     /**
      * Run the game engine. This method should handle all inputs, including inputs from the main
      * menu. Uses "wasd" keys to move player. Press ":q" to save game and quit.
+     *
+     * The game loop is a state machine that moves between the menu, gameplay and game over
+     * screens. Level transitions and restarts happen inside the loop, so the call stack stays
+     * bounded however long the session is.
      */
     public void interactWithKeyboard() {
         setUpPersistence();
+        prefetcher = new LevelPrefetcher();
+        GameState state = GameState.MENU;
+        while (state != GameState.EXIT) {
+            state = switch (state) {
+                case MENU -> runMenu();
+                case PLAYING -> REAL_TIME ? runRealTimeGameplay() : runInteractiveGameplay();
+                case GAME_OVER -> restartGame();
+                case EXIT -> GameState.EXIT;
+            };
+        }
+        System.exit(0);
+    }
+
+    /**
+     * Draw the menu and wait for user to start a new game, load a game or quit.
+     * @return next state of the game loop
+     */
+    private GameState runMenu() {
         DrawingUtils.drawSetting();
         DrawingUtils.drawMenu();
         while (true) {
@@ -75,121 +161,299 @@ public class Engine {
                 case 'n' -> {
                     int seed = solicitSeed();
                     String playerName = solicitPlayerName();
-                    runInteractiveEngine(seed, playerName, GameMechanics.INIT_PLAYER_HEALTH);
+                    level = 1;
+                    runEngine(seed, playerName, GameMechanics.INIT_PLAYER_HEALTH);
+                    newGameSeed = seed;
+                    return GameState.PLAYING;
                 }
                 case 'l' -> {
-                    boolean loadStatus = loadGame(true);
-                    if (loadStatus) {
-                        runInteractiveGameplay();
+                    newGameSeed = null;
+                    if (loadGame(true)) {
+                        return GameState.PLAYING;
                     }
                 }
-                case 'q' -> System.exit(0);
+                case 'q' -> {
+                    return GameState.EXIT;
+                }
             }
         }
     }
 
     /**
-     * Initializes engine and gameplay setting. Then run interactive gameplay. Called when user
-     * calls interactWithKeyboard().
+     * Pseudo-randomly generates rooms and hallways and initialize game objects. If there is a
+     * level cache, the level is restored from it if it has been generated before, and added to it
+     * otherwise.
      * @param seed seed for RNG
      * @param playerName name of player
      * @param playerHealth health of player
      */
-    void runInteractiveEngine(int seed, String playerName, int playerHealth) {
-        runEngine(seed, playerName, playerHealth);
-        runInteractiveGameplay();
+    void runEngine(int seed, String playerName, int playerHealth) {
+        if (levelCache == null) {
+            generate(seed, playerName, playerHealth);
+            return;
+        }
+        LevelCache.Key key = LevelCache.Key.of(this, seed);
+        if (levelCache.restore(key, this, playerName, playerHealth)) {
+            return;
+        }
+        try {
+            generate(seed, playerName, playerHealth);
+        } catch (RuntimeException | Error excp) {
+            levelCache.abandon(key);
+            throw excp;
+        }
+        levelCache.put(key, this);
+    }
+
+    /** Generate a level from a seed, generating it again from other seeds as verifyPolicy
+     * requires. */
+    private void generate(int seed, String playerName, int playerHealth) {
+        GameEvents.LevelGeneration event = new GameEvents.LevelGeneration();
+        event.begin();
+        long levelStart = Metrics.start();
+        int reseeds = 0;
+        while (!generateLevel(seed, playerName, playerHealth, event)) {
+            reseeds += 1;
+            if (reseeds > LevelVerifier.MAX_RESEEDS) {
+                throw new IllegalStateException("No playable level after "
+                        + LevelVerifier.MAX_RESEEDS + " reseeds");
+            }
+            seed = random.nextInt();
+        }
+        Metrics.stop(Metrics.Timer.LEVEL, levelStart);
+        event.seed = seed;
+        event.level = level;
+        event.reseeds = reseeds;
+        event.commit();
     }
 
     /**
-     * Pseudo-randomly generates rooms and hallways and initialize game objects.
-     * @param seed seed for RNG
-     * @param playerName name of player
-     * @param playerHealth health of player
+     * Generate a level from a seed and check it according to verifyPolicy.
+     * @return false if the level should be generated again from another seed
      */
-    void runEngine(int seed, String playerName, int playerHealth) {
+    private boolean generateLevel(int seed, String playerName, int playerHealth,
+                                  GameEvents.LevelGeneration event) {
         this.random = new Random(seed);
+        ownTiles();
         setTilesToBackground(tiles);
+        long stageStart = Metrics.start();
         ArrayList<Room> rooms = Room.buildRooms(this);
-        Room.connectRooms(this, rooms);
+        Metrics.stop(Metrics.Timer.BUILD_ROOMS, stageStart);
+        event.rooms = rooms.size();
+        stageStart = Metrics.start();
+        try {
+            Room.connectRooms(this, rooms);
+        } catch (NoSuchElementException excp) {
+            // rooms cannot be fully connected
+            if (verifyPolicy == LevelVerifier.Policy.OFF) {
+                throw excp;
+            }
+            return false;
+        } finally {
+            // failed attempts are timed too
+            Metrics.stop(Metrics.Timer.CONNECT_ROOMS, stageStart);
+        }
+        stageStart = Metrics.start();
         gameMech = new GameMechanics(this, rooms, playerName, playerHealth);
+        Metrics.stop(Metrics.Timer.PLACE_OBJECTS, stageStart);
+        return LevelVerifier.check(this, verifyPolicy);
+    }
+
+    /**
+     * Advance to the next level, which is generated from the next integer of the RNG of the
+     * current level. Player keeps their name and health. If the level has been generated in the
+     * background, it is taken from the prefetcher instead, and generation of the level after it
+     * starts.
+     */
+    void advanceLevel() {
+        level += 1;
+        int seed = random.nextInt();
+        Engine next = prefetcher == null ? null : prefetcher.take(seed, this);
+        if (next == null) {
+            runEngine(seed, gameMech.player.name, gameMech.player.health);
+        } else {
+            adoptLevel(next);
+        }
+        prefetchNextLevel();
+    }
+
+    /** Start generating the next level in the background if there is a prefetcher. */
+    void prefetchNextLevel() {
+        if (prefetcher != null && gameMech != null) {
+            prefetcher.prefetch(this);
+        }
     }
 
     /**
-     * Change the game state according to keyboard input from user in a turn-based way, and
-     * draw the game state and HUD accordingly. "wasd" moves player, ":q" saves game and quit.
-     * Display score and leaderboard, and prompt for user input if game over.
+     * Replace the current level with a level generated by another engine, as if it had been
+     * generated by this engine. Player keeps their health and the direction they face.
+     * @param next engine holding the next level
      */
-    void runInteractiveGameplay() {
+    private void adoptLevel(Engine next) {
+        int health = gameMech.player.health;
+        for (int x = 0; x < WORLD_WIDTH; x += 1) {
+            tiles[x] = next.tiles[x];
+            ownColumn[x] = next.ownColumn[x];
+        }
+        random = next.random;
+        levelReport = next.levelReport;
+        gameMech = next.gameMech;
+        gameMech.engine = this;
+        gameMech.player.health = health;
+        if (gameMech.player.avatar != patternPlayerAvatar) {
+            gameMech.player.avatar = patternPlayerAvatar;
+            changeTilePattern(gameMech.player.pos, patternPlayerAvatar);
+        }
+    }
+
+    /**
+     * Change the game state according to keyboard input from user in a turn-based way. The game
+     * state and HUD are drawn by a RenderThread, so drawing never holds up input handling. "wasd"
+     * moves player, ":q" saves game and quit. A new level is generated in place when player
+     * reaches the exit. If RECORD_FILE is set and the game was started from the menu, the keys
+     * are recorded to it.
+     * @return next state of the game loop, i.e. GAME_OVER if player dies or EXIT if user quits
+     */
+    GameState runInteractiveGameplay() {
         ter.initialize(WORLD_WIDTH + WORLD_XOFFSET, WORLD_HEIGHT + WORLD_YOFFSET
                 , WORLD_XOFFSET, WORLD_YOFFSET);
-        String[] input = new String[] {"`", tileDescriptionAtCursor};
-        int outcome = 0;
-        while (true) {
-            DrawingUtils.drawGameState(ter, gameMech.fieldOfView(tiles));
-            DrawingUtils.drawHud(gameMech.player.health, input[1], Integer.toString(level));
-            System.out.println(this);
-            input = solicitCharInputAndCursorLocation();
-            switch (input[0]) {
-                case "w" -> outcome = gameMech.moveGameObject(gameMech.player, 0, 1);
-                case "s" -> outcome = gameMech.moveGameObject(gameMech.player, 0, -1);
-                case "a" -> outcome = gameMech.moveGameObject(gameMech.player, -1, 0);
-                case "d" -> outcome = gameMech.moveGameObject(gameMech.player, 1, 0);
-                case " " -> outcome = gameMech.idle();
-                case "h" -> outcome = gameMech.teleport();
-                case "t" -> gameMech.lightSwitch();
-                case ":" -> {
+        GameSession session = new GameSession(this);
+        RenderThread renderer = new RenderThread(false);
+        WorldSnapshot snapshot = WorldSnapshot.take(this, 0, null);
+        renderer.publish(snapshot);
+        renderer.start();
+        InputSource keys = new InputSource() {
+            public char getNextKey() {
+                return solicitCharInput();
+            }
+
+            public boolean possibleNextInput() {
+                return true;
+            }
+        };
+        RecordingInputSource recorder = null;
+        if (RECORD_FILE != null && newGameSeed != null) {
+            try {
+                recorder = new RecordingInputSource(keys, session, new ReplayLog.Writer(
+                        new FileOutputStream(RECORD_FILE), newGameSeed, gameMech.player.name,
+                        this), RecordingInputSource.CHECKPOINT_INTERVAL);
+            } catch (FileNotFoundException excp) {
+                throw new IllegalArgumentException(excp.getMessage());
+            }
+            keys = recorder;
+        }
+        try {
+            while (true) {
+                DebugLog.dumpMap(level, session.turn(), tiles);
+                // a recorded ':' is ignored on replay, and the key after it is not recorded
+                char input = keys.getNextKey();
+                if (input == ':') {
                     if (solicitCharInput() == 'q') {
+                        renderer.stop();
                         saveGame();
-                        System.exit(0);
+                        return GameState.EXIT;
                     }
+                    continue;
                 }
-            }
-            switch (outcome) {
-                case 1 -> {
-                    level += 1;
-                    String advanceMsg = String.format("Advance Level -> Level %d !", level);
-                    System.out.println(advanceMsg);
-                    runInteractiveEngine(random.nextInt(), gameMech.player.name, gameMech.player.health);
+                switch (session.step(input)) {
+                    case ADVANCED -> {
+                        DebugLog.log(DebugLog.Level.INFO, () ->
+                                String.format("Advance Level -> Level %d !", level));
+                    }
+                    case DIED -> {
+                        DebugLog.log(DebugLog.Level.INFO, "Game Over!");
+                        return GameState.GAME_OVER;
+                    }
                 }
-                case -1 -> {
-                    System.out.println("Game Over!");
-                    Leaderboard lb = updateLeaderboard(gameMech.player.name, level);
-                    DrawingUtils.drawEndDisplay(level, lb);
-                    restartGame();
+                snapshot = WorldSnapshot.take(this, session.turn(), snapshot);
+                renderer.publish(snapshot);
+            }
+        } finally {
+            renderer.stop();
+            if (recorder != null) {
+                recorder.close();
+            }
+        }
+    }
+
+    /**
+     * Same as runInteractiveGameplay(), except that the game advances in real time on a
+     * simulation thread (see RealTimeLoop), whose snapshots are drawn by a RenderThread that
+     * slides player between ticks. This thread only collects keys. Tick and frame times are
+     * logged at INFO level when the game ends.
+     * @return next state of the game loop, i.e. GAME_OVER if player dies or EXIT if user quits
+     */
+    GameState runRealTimeGameplay() {
+        ter.initialize(WORLD_WIDTH + WORLD_XOFFSET, WORLD_HEIGHT + WORLD_YOFFSET
+                , WORLD_XOFFSET, WORLD_YOFFSET);
+        // a late tick is worse than a monster moving a tick later
+        mobBudgetNanos = MobScheduler.DEFAULT_BUDGET_NANOS;
+        RealTimeLoop loop = new RealTimeLoop(new GameSession(this));
+        RenderThread renderer = new RenderThread(true);
+        loop.setRenderer(renderer);
+        boolean colon = false;
+        renderer.start();
+        loop.start();
+        try {
+            while (!loop.isOver()) {
+                while (StdDraw.hasNextKeyTyped()) {
+                    char c = Character.toLowerCase(StdDraw.nextKeyTyped());
+                    if (colon && c == 'q') {
+                        loop.stop();
+                        renderer.stop();
+                        saveGame();
+                        return GameState.EXIT;
+                    }
+                    colon = c == ':';
+                    if (!colon) {
+                        loop.submit(c);
+                    }
                 }
+                LockSupport.parkNanos(RealTimeLoop.TICK_NANOS / 4);
             }
+            return GameState.GAME_OVER;
+        } finally {
+            loop.stop();
+            renderer.stop();
+            DebugLog.log(DebugLog.Level.INFO, () ->
+                    "Ticks: " + loop.tickTimes + ", dropped=" + loop.droppedTicks);
+            DebugLog.log(DebugLog.Level.INFO, () ->
+                    "Frames: " + renderer.frameTimes + ", dropped=" + renderer.dropped());
         }
     }
 
     /**
-     * Load, update and save the leaderboard. Only the top ENTRIES_TO_KEEP entries are kept on
-     * the leaderboard. The entry with the highest level attained will be displayed at the top.
+     * Record the score of the current player and load the leaderboard. Only the top
+     * ENTRIES_TO_KEEP entries are shown on the leaderboard. The entry with the highest level
+     * attained will be displayed at the top.
      * @param playerName name of the current player
      * @param level level that the current player attain
      * @return updated leaderboard
      */
     Leaderboard updateLeaderboard(String playerName, int level) {
-        Leaderboard lb = new Leaderboard();
-        lb.load(join(GAMESAVE, "lbEntries"));
-        lb.update(playerName, level);
-        lb.save();
-        return lb;
+        LeaderboardStore store = LeaderboardStore.open(GAMESAVE);
+        store.submit(playerName, level);
+        store.flush();
+        return new Leaderboard().load(store);
     }
 
     /**
-     * Ask whether user would like to restart the game. If 'y' (case-insensitive) is received,
-     * user will be prompted to the game menu for a fresh new game. If 'n' (case-insensitive) is
-     * received, display window will close and the program halts.
+     * Record the score, display the leaderboard and ask whether user would like to restart the
+     * game. If 'y' (case-insensitive) is received, user will be prompted to the game menu for a
+     * fresh new game. If 'n' (case-insensitive) is received, display window will close and the
+     * program halts.
+     * @return next state of the game loop
      */
-    void restartGame() {
+    GameState restartGame() {
+        Leaderboard lb = updateLeaderboard(gameMech.player.name, level);
+        DrawingUtils.drawEndDisplay(level, lb);
         char restart;
         while (true) {
             restart = solicitCharInput();
             if (restart == 'y') {
-                Main.main(new String[]{});
-                System.exit(0);
+                return GameState.MENU;
             } else if (restart == 'n') {
-                System.exit(0);
+                return GameState.EXIT;
             }
         }
     }
@@ -252,41 +516,22 @@ public class Engine {
 
     /**
      * Run gameplay by parsing user's input string. Similar to runInteractiveGameplay() but lacks a
-     * few features (see interactWithInputString()).
+     * few features (see interactWithInputString()). Parsing stops when the game is over or ":q"
+     * is parsed, in which case the game is saved.
      * @param inputSource parses input string from user
      * @return array representing game state
      */
     TETile[][] runStaticGamePlay(InputSource inputSource) {
-        int outcome = 0;
-        while (inputSource.possibleNextInput()) {
+        GameSession session = new GameSession(this);
+        while (inputSource.possibleNextInput() && !session.isOver()) {
             char c = inputSource.getNextKey();
-            switch (c) {
-                case 'w' -> outcome = gameMech.moveGameObject(gameMech.player, 0, 1);
-                case 's' -> outcome = gameMech.moveGameObject(gameMech.player, 0, -1);
-                case 'a' -> outcome = gameMech.moveGameObject(gameMech.player, -1, 0);
-                case 'd' -> outcome = gameMech.moveGameObject(gameMech.player, 1, 0);
-                case ' ' -> outcome = gameMech.idle();
-                case 'h' -> outcome = gameMech.teleport();
-                case ':' -> {
-                    if (inputSource.getNextKey() == 'q') {
-                        saveGame();
-                        System.out.println(this);
-                        System.exit(0);
-                    }
-                }
-            }
-            switch (outcome) {
-                case 1 -> {
-                    level += 1;
-                    String advanceMsg = String.format("Advance Level -> Level %d !", level);
-                    System.out.println(advanceMsg);
-                    runStaticEngine(random.nextInt(), inputSource, "placeholder"
-                            , gameMech.player.health);
-                }
-                case -1 -> {
-                    System.out.println("Game Over!");
-                    System.exit(0);
+            if (c == ':') {
+                if (inputSource.possibleNextInput() && inputSource.getNextKey() == 'q') {
+                    saveGame();
+                    break;
                 }
+            } else {
+                session.step(c);
             }
         }
         return tiles;
@@ -302,7 +547,7 @@ public class Engine {
         while (true) {
             if (StdDraw.hasNextKeyTyped()) {
                 char input = Character.toLowerCase(StdDraw.nextKeyTyped());
-                System.out.println(input);
+                DebugLog.log(DebugLog.Level.TRACE, () -> "key " + input);
                 return input;
             }
         }
@@ -317,7 +562,7 @@ public class Engine {
         while (true) {
             if (StdDraw.hasNextKeyTyped()) {
                 char input = Character.toLowerCase(StdDraw.nextKeyTyped());
-                System.out.println(input);
+                DebugLog.log(DebugLog.Level.TRACE, () -> "key " + input);
                 return input;
             }
             if (StdDraw.isMousePressed()) {
@@ -414,36 +659,6 @@ public class Engine {
         }
     }
 
-    /**
-     * Gets each keyboard input from user and description of the tile that the mouse cursor is
-     * currently over. The function only returns when there is any unparsed input or a change in
-     * tile description.
-     * @return input character and description of the mouse-over tile
-     */
-    private String[] solicitCharInputAndCursorLocation() {
-        TETile[][] fovTiles = null;
-        while (true) {
-            if (StdDraw.hasNextKeyTyped()) {
-                char input = Character.toLowerCase(StdDraw.nextKeyTyped());
-                System.out.println(input);
-                return new String[]{Character.toString(input), tileDescriptionAtCursor};
-            }
-            int cursorX = (int) StdDraw.mouseX() - WORLD_XOFFSET;
-            int cursorY = (int) StdDraw.mouseY() - WORLD_YOFFSET;
-            if (fovTiles == null) {
-                fovTiles = gameMech.fieldOfView(tiles);
-            }
-            String tileDescription = getTilePattern(fovTiles, cursorX, cursorY).description();
-            if (tileDescription.equals("Player")) {
-                tileDescription = gameMech.player.name;
-            }
-            if (!tileDescription.equals(tileDescriptionAtCursor)) {
-                tileDescriptionAtCursor = tileDescription;
-                return new String[]{"`", tileDescriptionAtCursor};
-            }
-        }
-    }
-
     /* Methods for collecting player's input by parsing input string */
 
     /**
@@ -499,16 +714,41 @@ public class Engine {
 
     /** Change pattern of the specific tile */
     public TETile[][] changeTilePattern(Position pos, TETile newTilePattern) {
-        tiles[pos.getX()][pos.getY()] = newTilePattern;
-        return tiles;
+        return changeTilePattern(pos.getX(), pos.getY(), newTilePattern);
     }
 
     /** Change pattern of the specific tile */
     public TETile[][] changeTilePattern(int x, int y, TETile newTilePattern) {
+        if (!ownColumn[x]) {
+            tiles[x] = tiles[x].clone();
+            ownColumn[x] = true;
+        }
         tiles[x][y] = newTilePattern;
         return tiles;
     }
 
+    /**
+     * Use the columns of a tile array as the columns of tiles without copying them. The array must
+     * not be changed; a column is copied before a tile in it is first changed by this engine.
+     * @param shared tile array of WORLD_WIDTH x WORLD_HEIGHT tiles
+     */
+    void shareTiles(TETile[][] shared) {
+        for (int x = 0; x < WORLD_WIDTH; x += 1) {
+            tiles[x] = shared[x];
+            ownColumn[x] = false;
+        }
+    }
+
+    /** Copy every shared column of tiles, so that tiles can be written directly. */
+    private void ownTiles() {
+        for (int x = 0; x < WORLD_WIDTH; x += 1) {
+            if (!ownColumn[x]) {
+                tiles[x] = tiles[x].clone();
+                ownColumn[x] = true;
+            }
+        }
+    }
+
     /** Get TETile at specific position. */
     public TETile getTilePattern(Position pos) {
         if (pos.getX() >= 0 && pos.getX() < WORLD_WIDTH &&
@@ -546,12 +786,16 @@ public class Engine {
 
     /** Saves state of game to .gamesave directory. */
     void saveGame() {
+        GameEvents.SaveGame event = new GameEvents.SaveGame();
+        event.begin();
         HashMap<String, Serializable> gameState = new HashMap<>();
         gameState.put("random", random);
         gameState.put("tiles", tiles);
         gameState.put("level", level);
         gameState.put("gameMech", gameMech);
         writeObject(join(GAMESAVE, "gameState"), gameState);
+        event.level = level;
+        event.commit();
     }
 
     /**
@@ -560,8 +804,11 @@ public class Engine {
      * @return whether a save is successfully loaded
      */
     boolean loadGame(boolean drawMsg) {
+        GameEvents.LoadGame event = new GameEvents.LoadGame();
+        event.begin();
         if (!join(GAMESAVE, "gameState").exists()) {
-            System.out.println("There is no saved game");
+            event.commit();
+            DebugLog.log(DebugLog.Level.WARN, "There is no saved game");
             if (drawMsg) {
                 DrawingUtils.clearCanvasAndDrawText(WORLD_WIDTH / 2.0
                         , WORLD_HEIGHT * 0.5, "There is no saved game");
@@ -573,10 +820,14 @@ public class Engine {
         HashMap<String, Serializable> gameState = readObject(f, HashMap.class);
         random = (Random) gameState.get("random");
         tiles = (TETile[][]) gameState.get("tiles");
+        Arrays.fill(ownColumn, true);
         level = (int) gameState.get("level");
         gameMech = (GameMechanics) gameState.get("gameMech");
         gameMech.engine = this;
 
+        event.level = level;
+        event.loaded = true;
+        event.commit();
         return true;
     }
 }
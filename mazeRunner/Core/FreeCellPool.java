@@ -0,0 +1,111 @@
+package mazeRunner.Core;
+
+import mazeRunner.TileEngine.TETile;
+
+import java.util.Random;
+
+import static mazeRunner.Core.Engine.WORLD_HEIGHT;
+import static mazeRunner.Core.Engine.WORLD_WIDTH;
+
+/**
+ * Pool of unoccupied tiles of a given pattern (e.g. floor) from which game objects are placed.
+ * Tiles are held in an array and removed by swapping the last tile into the hole, so a uniformly
+ * random tile is taken in constant time and sampling always terminates, however dense the map.
+ */
+class FreeCellPool {
+    /** Free tiles, indexed by x + y * WORLD_WIDTH. Only the first size entries are valid. */
+    private final int[] cells;
+    /** Number of free tiles. */
+    private int size;
+
+    /**
+     * Constructor of the class. Collects all tiles of the given pattern.
+     * @param tiles tile array representing game state
+     * @param pattern pattern of free tiles
+     */
+    FreeCellPool(TETile[][] tiles, TETile pattern) {
+        cells = new int[WORLD_WIDTH * WORLD_HEIGHT];
+        for (int y = 0; y < WORLD_HEIGHT; y += 1) {
+            for (int x = 0; x < WORLD_WIDTH; x += 1) {
+                if (tiles[x][y].isSameType(pattern)) {
+                    cells[size] = x + y * WORLD_WIDTH;
+                    size += 1;
+                }
+            }
+        }
+    }
+
+    /** Number of free tiles. */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Take a uniformly random free tile out of the pool.
+     * @param random RNG
+     * @return position of the tile
+     * @throws IllegalStateException if there is no free tile
+     */
+    Position take(Random random) {
+        if (size == 0) {
+            throw new IllegalStateException("No free tile left");
+        }
+        return removeAt(random.nextInt(size));
+    }
+
+    /**
+     * Take a uniformly random free tile that is at least minDist away from a given position out of
+     * the pool. If there is no such tile, the free tile farthest from the position is taken.
+     * @param random RNG
+     * @param from position to keep away from
+     * @param minDist minimum distance from the position
+     * @return position of the tile
+     * @throws IllegalStateException if there is no free tile
+     */
+    Position takeAwayFrom(Random random, Position from, double minDist) {
+        if (size == 0) {
+            throw new IllegalStateException("No free tile left");
+        }
+        int eligible = 0;
+        int farthest = 0;
+        double farthestDist = -1;
+        for (int i = 0; i < size; i += 1) {
+            double d = dist(cells[i], from);
+            if (d >= minDist) {
+                eligible += 1;
+            }
+            if (d > farthestDist) {
+                farthestDist = d;
+                farthest = i;
+            }
+        }
+        if (eligible == 0) {
+            return removeAt(farthest);
+        }
+        int k = random.nextInt(eligible);
+        for (int i = 0; i < size; i += 1) {
+            if (dist(cells[i], from) >= minDist) {
+                if (k == 0) {
+                    return removeAt(i);
+                }
+                k -= 1;
+            }
+        }
+        throw new AssertionError();
+    }
+
+    /** Remove the tile at index i of the pool by swapping the last tile into its place. */
+    private Position removeAt(int i) {
+        int cell = cells[i];
+        size -= 1;
+        cells[i] = cells[size];
+        return new Position(cell % WORLD_WIDTH, cell / WORLD_WIDTH);
+    }
+
+    /** Euclidean distance between a tile and a position. */
+    private static double dist(int cell, Position pos) {
+        int dX = cell % WORLD_WIDTH - pos.getX();
+        int dY = cell / WORLD_WIDTH - pos.getY();
+        return Math.sqrt(dX * dX + dY * dY);
+    }
+}
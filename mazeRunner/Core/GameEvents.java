@@ -0,0 +1,80 @@
+package mazeRunner.Core;
+
+import jdk.jfr.*;
+
+/**
+ * Java Flight Recorder events of world generation and gameplay. Events are recorded only while a
+ * flight recording is running, e.g. when the game is started with
+ * -XX:StartFlightRecording=filename=maze.jfr, and cost little more than a field check otherwise.
+ * Every event is timed from begin() to commit(), so stalls can be matched to the seed and level
+ * that caused them.
+ */
+final class GameEvents {
+    private GameEvents() {
+    }
+
+    @Name("mazeRunner.LevelGeneration")
+    @Label("Level Generation")
+    @Category({"Maze Runner", "Generation"})
+    @Description("Generation of a level by Engine.runEngine")
+    static class LevelGeneration extends Event {
+        @Label("Seed")
+        int seed;
+        @Label("Level")
+        int level;
+        @Label("Rooms")
+        int rooms;
+        @Label("Reseeds")
+        @Description("Number of times the level is generated again because it cannot be played")
+        int reseeds;
+    }
+
+    @Name("mazeRunner.RoomConnection")
+    @Label("Room Connection")
+    @Category({"Maze Runner", "Generation"})
+    @Description("Attempt to connect two rooms by a hallway in TileGraph.connect")
+    static class RoomConnection extends Event {
+        @Label("Source Room")
+        int srcRoom;
+        @Label("Target Room")
+        int tgtRoom;
+        @Label("Path Length")
+        @Description("Number of tiles on the shortest path, or 0 if the rooms cannot be connected")
+        int pathLength;
+    }
+
+    @Name("mazeRunner.FieldOfView")
+    @Label("Field Of View")
+    @Category({"Maze Runner", "Gameplay"})
+    static class FieldOfView extends Event {
+        @Label("Cells Visited")
+        int cellsVisited;
+    }
+
+    @Name("mazeRunner.RenderFrame")
+    @Label("Render Frame")
+    @Category({"Maze Runner", "Gameplay"})
+    static class RenderFrame extends Event {
+        @Label("Cells")
+        int cells;
+    }
+
+    @Name("mazeRunner.SaveGame")
+    @Label("Save Game")
+    @Category({"Maze Runner", "Persistence"})
+    static class SaveGame extends Event {
+        @Label("Level")
+        int level;
+    }
+
+    @Name("mazeRunner.LoadGame")
+    @Label("Load Game")
+    @Category({"Maze Runner", "Persistence"})
+    static class LoadGame extends Event {
+        @Label("Level")
+        int level;
+        @Label("Loaded")
+        @Description("Whether a saved game exists and is loaded")
+        boolean loaded;
+    }
+}
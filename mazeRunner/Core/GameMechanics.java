@@ -3,6 +3,8 @@ package mazeRunner.Core;
 import mazeRunner.TileEngine.TETile;
 import mazeRunner.TileEngine.Tileset;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.util.*;
 
@@ -13,6 +15,7 @@ import static mazeRunner.Core.Engine.*;
  * state and among themselves.
  */
 public class GameMechanics implements Serializable {
+    private static final long serialVersionUID = -3120746716832743754L;
     /** Game engine */
     transient Engine engine;
     /** Player */
@@ -26,6 +29,8 @@ public class GameMechanics implements Serializable {
     /** A set of pairs of portals which can teleport player from a portal to the other side of
      * the portal. */
     Set<PortalPair> portalPairs;
+    /** Monsters chasing player, in the order they take their turns. See MobScheduler. */
+    List<Monster> monsters;
     /** Initial health of player. Game ends when health drops to 0 */
     static final int INIT_PLAYER_HEALTH = 500;
     /** Minimum distance between player and exit at initialization. */
@@ -38,22 +43,93 @@ public class GameMechanics implements Serializable {
     static final int LIGHT_RADIUS = 5;
     /** Position of the other side of portal. */
     Position portalPreviewPos;
-    /** Number of torches randomly placed on map. */
+    /** Number of torches randomly placed on a map of REFERENCE_FLOOR_TILES floor tiles. */
     static final int NUM_TORCHES = 8;
-    /** Number of breads placed on map. */
+    /** Number of breads placed on a map of REFERENCE_FLOOR_TILES floor tiles. */
     static final int NUM_BREADS = 4;
-    /** Number of pairs of portals place on map. */
+    /** Number of pairs of portals placed on a map of REFERENCE_FLOOR_TILES floor tiles. */
     static final int NUM_PORTAL_PAIRS = 3;
+    /** Number of floor tiles of a typical map. Numbers of game objects scale with the number of
+     * floor tiles of a map relative to this. */
+    static final int REFERENCE_FLOOR_TILES = 450;
+    /** Minimum distance between player and monsters at initialization. */
+    static final float MIN_DIST_PLAYER_MONSTER = 2 * LIGHT_RADIUS;
+    /** Default multiplier of the numbers of game objects. See Engine.objectDensity. */
+    static final double DEFAULT_OBJECT_DENSITY = 1.0;
+    /** Floor tiles not yet occupied by game objects. Only used during initialization. */
+    private transient FreeCellPool freeFloor;
+    /** Number of floor tiles of the map. Only used during initialization. */
+    private transient int floorTiles;
+    /** Torch, bread or portal located at each tile, indexed by x + y * WORLD_WIDTH, or null if
+     * there is none. Kept in sync with torches, breads and portalPairs so that objects can be
+     * found by position in constant time. Not saved; rebuilt when a game is loaded. */
+    private transient GameObject[] objectIndex = new GameObject[WORLD_WIDTH * WORLD_HEIGHT];
+    /** Changes to objectIndex when it is shared with other game mechanics, which must not see
+     * them, keyed by tile. A null value means the object at the tile was removed. Null if
+     * objectIndex is not shared. */
+    private transient HashMap<Integer, GameObject> indexOverlay;
+    /** Whether Engine.distanceFields hold the distance fields of this level. Not saved, so the
+     * fields are computed again when a game is loaded. */
+    private transient boolean distanceFieldsComputed;
 
     /** Constructor of the class. Set player and exit at random locations of the world. */
     GameMechanics(Engine engine, ArrayList<Room> rooms, String playerName, int playerHealth) {
         this.engine = engine;
+        this.freeFloor = new FreeCellPool(engine.tiles, patternFloor);
+        this.floorTiles = freeFloor.size();
         this.player = initializePlayer(playerName, playerHealth);
         this.exit = initializeExit(rooms);
         this.torches = initializeTorches();
         this.breads = initializeBreads();
         this.portalPairs = initializePortals();
+        this.monsters = initializeMonsters();
         this.lightsOn = false;
+        this.freeFloor = null;
+    }
+
+    /**
+     * Constructor of the class for a session starting on the level of another game mechanics,
+     * e.g. a cached level played by many sessions at once. The other game mechanics must not be
+     * changed afterwards. Torches, breads, portals and the exit never move, so they are shared
+     * along with objectIndex, whose changes are kept in indexOverlay. Only player, monsters and
+     * the set of breads not yet eaten are copied, so a session costs memory in proportion to what
+     * it changes.
+     * @param base game mechanics of the level, which must not be changed
+     * @param engine engine of the session, whose tiles hold the level
+     * @param playerName name of player
+     * @param playerHealth health of player
+     */
+    GameMechanics(GameMechanics base, Engine engine, String playerName, int playerHealth) {
+        this.engine = engine;
+        this.player = new Player(base.player.pos, engine.patternPlayerAvatar, playerName,
+                playerHealth);
+        this.player.lastTilePattern = base.player.lastTilePattern;
+        this.exit = base.exit;
+        this.torches = base.torches;
+        this.breads = new HashSet<>(base.breads);
+        this.portalPairs = base.portalPairs;
+        this.monsters = new ArrayList<>(base.monsters.size());
+        for (Monster m : base.monsters) {
+            Monster copy = new Monster(m.pos, m.avatar);
+            copy.lastTilePattern = m.lastTilePattern;
+            monsters.add(copy);
+        }
+        this.lightsOn = base.lightsOn;
+        this.objectIndex = base.objectIndex;
+        this.indexOverlay = new HashMap<>();
+    }
+
+    /**
+     * Number of game objects of a kind to place on the map, which scales with the number of floor
+     * tiles of the map and Engine.objectDensity. At least 1 object is placed as long as there are
+     * free floor tiles.
+     * @param base number of objects on a map of REFERENCE_FLOOR_TILES floor tiles at density 1
+     * @param tilesPerObject number of floor tiles taken by each object
+     * @return number of objects
+     */
+    private int scaledCount(int base, int tilesPerObject) {
+        long n = Math.round(base * engine.objectDensity * floorTiles / REFERENCE_FLOOR_TILES);
+        return (int) Math.min(Math.max(n, 1), freeFloor.size() / tilesPerObject);
     }
 
     /**
@@ -63,111 +139,138 @@ public class GameMechanics implements Serializable {
      * @return player set at a random location
      */
     private Player initializePlayer(String playerName, int playerHealth) {
-        int x = engine.random.nextInt(WORLD_WIDTH);
-        int y = engine.random.nextInt(WORLD_HEIGHT);
-        while (!engine.getTilePattern(x, y).isSameType(Engine.patternFloor)) {
-            x = engine.random.nextInt(WORLD_WIDTH);
-            y = engine.random.nextInt(WORLD_HEIGHT);
-        }
-        Position pos = new Position(x,y);
-        engine.changeTilePattern(pos, Engine.patternPlayerAvatar);
-        return new Player(pos, Engine.patternPlayerAvatar, playerName, playerHealth);
+        Position pos = freeFloor.take(engine.random);
+        engine.changeTilePattern(pos, engine.patternPlayerAvatar);
+        return new Player(pos, engine.patternPlayerAvatar, playerName, playerHealth);
     }
 
     /* Methods for initialization of gameplay */
 
     /**
-     * Randomly initializes exit. Exit must be placed on a wall of a room.
+     * Randomly initializes exit. Exit must be placed on a wall of a room, but not at a corner,
+     * and at least MIN_DIST_PLAYER_EXIT away from player. If Engine.minExitSteps is positive,
+     * player must also need at least that many steps to reach the exit. Eligible walls are
+     * enumerated once and one of them is sampled; if there is none, the wall farthest from player
+     * is used.
      * @param rooms rooms
      * @return position of exit
      */
     private Position initializeExit(ArrayList<Room> rooms) {
-        Room randRoom = rooms.get(engine.random.nextInt(rooms.size()));
-        int x = randRoom.lowerLeft.getX();
-        int y = randRoom.lowerLeft.getY();
-        int dX;
-        int dY;
-        Position exitPos = new Position(x, y);
-        while (!engine.getTilePattern(x, y).equals(Engine.patternWall)
-                || Position.dist(exitPos, player.pos) < MIN_DIST_PLAYER_EXIT
-                || (x == randRoom.lowerLeft.getX() && y == randRoom.lowerLeft.getY())
-                || (x == randRoom.lowerLeft.getX() && y == randRoom.upperRight.getY())
-                || (x == randRoom.upperRight.getX() && y == randRoom.lowerLeft.getY())
-                || (x == randRoom.upperRight.getX() && y == randRoom.upperRight.getY())) {
-            randRoom = rooms.get(engine.random.nextInt(rooms.size()));
-            dX = engine.random.nextInt(randRoom.upperRight.getX()
-                    - randRoom.lowerLeft.getX() + 1);
-            dY = engine.random.nextInt(randRoom.upperRight.getY()
-                    - randRoom.lowerLeft.getY() + 1);
-            x = randRoom.lowerLeft.getX() + dX;
-            y = randRoom.lowerLeft.getY() + dY;
-            exitPos = new Position(x, y);
+        GridBfs bfs = null;
+        if (engine.minExitSteps > 0) {
+            bfs = new GridBfs();
+            bfs.run(engine.tiles, player.pos);
         }
+        ArrayList<Position> candidates = new ArrayList<>();
+        Position farthest = null;
+        double farthestDist = -1;
+        for (Room rm : rooms) {
+            int x0 = rm.lowerLeft.getX();
+            int y0 = rm.lowerLeft.getY();
+            int x1 = rm.upperRight.getX();
+            int y1 = rm.upperRight.getY();
+            for (int x = x0; x <= x1; x += 1) {
+                for (int y = y0; y <= y1; y += 1) {
+                    if ((x == x0 || x == x1) && (y == y0 || y == y1)
+                            || !engine.getTilePattern(x, y).equals(Engine.patternWall)) {
+                        continue;
+                    }
+                    Position pos = new Position(x, y);
+                    double dist = Position.dist(pos, player.pos);
+                    int steps = bfs == null ? 0 : bfs.stepsToEnter(x, y);
+                    if (dist >= MIN_DIST_PLAYER_EXIT
+                            && (bfs == null || steps >= engine.minExitSteps)) {
+                        candidates.add(pos);
+                    }
+                    double d = bfs == null ? dist : steps;
+                    if (d > farthestDist) {
+                        farthestDist = d;
+                        farthest = pos;
+                    }
+                }
+            }
+        }
+        Position exitPos = candidates.isEmpty() ? farthest
+                : candidates.get(engine.random.nextInt(candidates.size()));
         engine.changeTilePattern(exitPos, Engine.patternExit);
         return exitPos;
     }
 
     /**
-     * Randomly initializes NUM_TORCHES torches. Torches must be placed on floor tiles.
+     * Randomly initializes torches, NUM_TORCHES on a map of typical size. Torches must be placed
+     * on floor tiles.
      * @return a set of torch
      */
     private Set<Torch> initializeTorches() {
         Set<Torch> out = new HashSet<>();
-        for (int i = 0; i < NUM_TORCHES; i += 1) {
-            Position pos = sampleRandPosOnTilePattern(patternFloor);
+        int n = scaledCount(NUM_TORCHES, 1);
+        for (int i = 0; i < n; i += 1) {
+            Position pos = freeFloor.take(engine.random);
             engine.changeTilePattern(pos, Engine.patternTorch);
-            out.add(new Torch(pos, Engine.patternTorch));
+            Torch t = new Torch(pos, Engine.patternTorch);
+            out.add(t);
+            indexObject(t);
         }
         return out;
     }
 
     /**
-     * Randomly initializes NUM_BREADS breads. Breads must be placed on floor tiles.
+     * Randomly initializes breads, NUM_BREADS on a map of typical size. Breads must be placed on
+     * floor tiles.
      * @return a set of breads
      */
     private Set<Bread> initializeBreads() {
         Set<Bread> out = new HashSet<>();
-        for (int i = 0; i < NUM_BREADS; i += 1) {
-            Position pos = sampleRandPosOnTilePattern(patternFloor);
+        int n = scaledCount(NUM_BREADS, 1);
+        for (int i = 0; i < n; i += 1) {
+            Position pos = freeFloor.take(engine.random);
             engine.changeTilePattern(pos, patternBread);
-            out.add(new Bread(pos, patternBread));
+            Bread b = new Bread(pos, patternBread);
+            out.add(b);
+            indexObject(b);
         }
         return out;
     }
 
     /**
-     * Randomly initializes NUM_PORTAL_PAIRS pairs of portals. Portals must be placed on floor
-     * tiles.
+     * Randomly initializes pairs of portals, NUM_PORTAL_PAIRS on a map of typical size. Portals
+     * must be placed on floor tiles. The two sides of a pair are at least
+     * PortalPair.MIN_PAIR_DIST apart unless no free floor tile is that far away, in which case
+     * the farthest free floor tile is used.
      * @return a set of portal pairs
      */
     private Set<PortalPair> initializePortals() {
         Set<PortalPair> out = new HashSet<>();
-        for (int i = 0; i < NUM_PORTAL_PAIRS; i += 1) {
-            Position posA = sampleRandPosOnTilePattern(patternFloor);
-            Position posB = sampleRandPosOnTilePattern(patternFloor);
-            while (Position.dist(posA, posB) < PortalPair.MIN_PAIR_DIST) {
-                posB = sampleRandPosOnTilePattern(patternFloor);
-            }
+        int n = scaledCount(NUM_PORTAL_PAIRS, 2);
+        for (int i = 0; i < n; i += 1) {
+            Position posA = freeFloor.take(engine.random);
+            Position posB = freeFloor.takeAwayFrom(engine.random, posA, PortalPair.MIN_PAIR_DIST);
             engine.changeTilePattern(posA, patternPortal);
             engine.changeTilePattern(posB, patternPortal);
-            out.add(new PortalPair(posA, posB, patternPortal));
+            PortalPair pp = new PortalPair(posA, posB, patternPortal);
+            out.add(pp);
+            indexObject(pp.getPortal());
+            indexObject(pp.getOtherPortal());
         }
         return out;
     }
 
     /**
-     * Randomly sample a tile position that has a specified tile pattern.
-     * @param tilePattern tile pattern of the sampled position
-     * @return position
+     * Randomly initializes Engine.monsterCount monsters, as many as there are free floor tiles.
+     * Monsters must be placed on floor tiles at least MIN_DIST_PLAYER_MONSTER away from player,
+     * unless no free floor tile is that far away.
+     * @return a list of monsters
      */
-    private Position sampleRandPosOnTilePattern(TETile tilePattern) {
-        int x = engine.random.nextInt(WORLD_WIDTH);
-        int y = engine.random.nextInt(WORLD_HEIGHT);
-        while (!engine.getTilePattern(x, y).isSameType(tilePattern)) {
-            x = engine.random.nextInt(WORLD_WIDTH);
-            y = engine.random.nextInt(WORLD_HEIGHT);
+    private List<Monster> initializeMonsters() {
+        List<Monster> out = new ArrayList<>();
+        int n = Math.min(engine.monsterCount, freeFloor.size());
+        for (int i = 0; i < n; i += 1) {
+            Position pos = freeFloor.takeAwayFrom(engine.random, player.pos,
+                    MIN_DIST_PLAYER_MONSTER);
+            engine.changeTilePattern(pos, patternMonster);
+            out.add(new Monster(pos, patternMonster));
         }
-        return new Position(x, y);
+        return out;
     }
 
     /* Actions */
@@ -221,10 +324,9 @@ public class GameMechanics implements Serializable {
 
     /** Deprecated */
     Torch getTorch(Position pos) {
-        for (Torch t : torches) {
-            if (t.pos.equals(pos)) {
-                return t;
-            }
+        GameObject go = objectAt(pos);
+        if (go instanceof Torch) {
+            return (Torch) go;
         }
         throw new NoSuchElementException("Cannot find torch");
     }
@@ -240,28 +342,127 @@ public class GameMechanics implements Serializable {
      * @return bread
      */
     Bread findBreadFmPos(Position pos) {
-        for (Bread b : breads) {
-            if (b.pos.equals(pos)) {
-                return b;
-            }
+        GameObject go = objectAt(pos);
+        if (go instanceof Bread) {
+            return (Bread) go;
         }
         throw new NoSuchElementException();
     }
 
+    /**
+     * Remove bread located at a given position, e.g. when it is eaten by player.
+     * @param pos position of bread
+     * @return bread removed
+     */
+    Bread removeBread(Position pos) {
+        Bread b = findBreadFmPos(pos);
+        breads.remove(b);
+        setIndexed(cellOf(pos), null);
+        if (distanceFieldsComputed) {
+            engine.distanceFields.breadEaten(pos);
+        }
+        return b;
+    }
+
+    /**
+     * Get distance fields of this level, computing them if they have not been computed yet.
+     * Distances to bread are kept up to date as bread is eaten.
+     * @return distance fields
+     */
+    DistanceFields distanceFields() {
+        if (engine.distanceFields == null) {
+            engine.distanceFields = new DistanceFields();
+        }
+        if (!distanceFieldsComputed) {
+            engine.distanceFields.compute(engine.tiles, this);
+            distanceFieldsComputed = true;
+        }
+        return engine.distanceFields;
+    }
+
     /**
      * Get a portal pair whereby one side of the pair is located on the specified location.
      * @param pos
      * @return portal pair
      */
     PortalPair findPortalPairFmPos(Position pos) {
-        for (PortalPair pp : portalPairs) {
-            if (pp.getPortal().pos.equals(pos) || pp.getOtherPortal().pos.equals(pos)) {
-                return pp;
-            }
+        GameObject go = objectAt(pos);
+        if (go instanceof PortalPair.Portal) {
+            return ((PortalPair.Portal) go).getPair();
         }
         throw new NoSuchElementException();
     }
 
+    /* Object index */
+
+    /** Return the index of the tile at a given position in objectIndex. */
+    private static int cellOf(Position pos) {
+        return pos.getX() + pos.getY() * WORLD_WIDTH;
+    }
+
+    /** Return torch, bread or portal located at a given position, or null if there is none. */
+    GameObject objectAt(Position pos) {
+        return objectAt(cellOf(pos));
+    }
+
+    /** Return torch, bread or portal located at tile x + y * WORLD_WIDTH, or null if there is
+     * none. */
+    GameObject objectAt(int cell) {
+        if (indexOverlay != null && indexOverlay.containsKey(cell)) {
+            return indexOverlay.get(cell);
+        }
+        return objectIndex[cell];
+    }
+
+    /** Add a torch, bread or portal to objectIndex at its position. */
+    void indexObject(GameObject go) {
+        setIndexed(cellOf(go.pos), go);
+    }
+
+    /** Set the object at a tile in objectIndex, or in indexOverlay if objectIndex is shared. */
+    private void setIndexed(int cell, GameObject go) {
+        if (indexOverlay != null) {
+            indexOverlay.put(cell, go);
+        } else {
+            objectIndex[cell] = go;
+        }
+    }
+
+    /**
+     * Move a torch, bread or portal to another tile, leaving floor behind.
+     * @param go game object to move
+     * @param newPos position of a floor tile
+     */
+    void relocateObject(GameObject go, Position newPos) {
+        setIndexed(cellOf(go.pos), null);
+        engine.changeTilePattern(go.pos, patternFloor);
+        go.pos = newPos;
+        engine.changeTilePattern(newPos, go.avatar);
+        indexObject(go);
+        distanceFieldsComputed = false;
+    }
+
+    /** Rebuild objectIndex from torches, breads and portalPairs. */
+    private void rebuildObjectIndex() {
+        objectIndex = new GameObject[WORLD_WIDTH * WORLD_HEIGHT];
+        torches.forEach(this::indexObject);
+        breads.forEach(this::indexObject);
+        for (PortalPair pp : portalPairs) {
+            indexObject(pp.getPortal());
+            indexObject(pp.getOtherPortal());
+        }
+    }
+
+    /** Rebuild objectIndex, which is not saved, when a game is loaded. Games saved before
+     * monsters were added have none. */
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        rebuildObjectIndex();
+        if (monsters == null) {
+            monsters = new ArrayList<>();
+        }
+    }
+
     /* Visuals */
 
     /**
@@ -275,19 +476,36 @@ public class GameMechanics implements Serializable {
     TETile[][] fieldOfView(TETile[][] tArray) {
         if (lightsOn) {
             return tArray;
-        } else {
-            fovPos = new LinkedList<>();
-            getFovPos(player.pos, LIGHT_RADIUS);
-            if (portalPreviewPos != null) {
-                getFovPos(portalPreviewPos, LIGHT_RADIUS);
-            }
-            TETile[][] _tArray = new TETile[tArray.length][tArray[0].length];
-            Engine.setTilesToBackground(_tArray);
-            for (Position pos : fovPos) {
-                _tArray[pos.getX()][pos.getY()] = tArray[pos.getX()][pos.getY()];
-            }
-            return _tArray;
         }
+        return fieldOfView(tArray, new TETile[tArray.length][tArray[0].length]);
+    }
+
+    /**
+     * Same as fieldOfView(tArray), except that the field of view is written to the given buffer
+     * so that the buffer can be reused across turns.
+     * @param tArray tile array representing game state
+     * @param out buffer of the same dimensions as tArray
+     * @return tArray if lights are on, otherwise out
+     */
+    TETile[][] fieldOfView(TETile[][] tArray, TETile[][] out) {
+        if (lightsOn) {
+            return tArray;
+        }
+        GameEvents.FieldOfView event = new GameEvents.FieldOfView();
+        event.begin();
+        fovPos = new LinkedList<>();
+        getFovPos(player.pos, LIGHT_RADIUS);
+        if (portalPreviewPos != null) {
+            getFovPos(portalPreviewPos, LIGHT_RADIUS);
+        }
+        Metrics.add(Metrics.Counter.FOV_CELLS_VISITED, fovPos.size());
+        Engine.setTilesToBackground(out);
+        for (Position pos : fovPos) {
+            out[pos.getX()][pos.getY()] = tArray[pos.getX()][pos.getY()];
+        }
+        event.cellsVisited = fovPos.size();
+        event.commit();
+        return out;
     }
 
     /** Recursive helper function to get a list of positions within field of view of player. See
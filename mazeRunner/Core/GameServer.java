@@ -0,0 +1,349 @@
+package mazeRunner.Core;
+
+import mazeRunner.TileEngine.TETile;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Hosts many game sessions in one JVM and serves them over TCP on the loopback interface. Each
+ * connection plays one session on its own thread, which blocks reading keys and answers every key
+ * with a frame. Sessions share a LevelCache, so players on the same seed share one copy of each
+ * level.
+ *
+ * A client starts with a hello: the magic number, FORMAT_VERSION, the seed and the name of player
+ * (writeUTF). It then sends one byte per key pressed, and closes the connection to quit. The server
+ * answers the hello with a full frame and every key with a delta frame, or with an over frame once
+ * player has died, after which it closes the connection. Frames hold the tiles player can see, as
+ * in the game window:
+ * <pre>
+ *   full:  TAG_FULL  level (int) health (int) width (short) height (short) chars (char each)
+ *   delta: TAG_DELTA health (int) count (varint) [cell gap (varint) char] * count
+ *   over:  TAG_OVER  health (int)
+ * </pre>
+ * Chars of a full frame are ordered by column, i.e. tile (x, y) is at x * height + y, which is
+ * also its cell. A delta frame only lists the tiles whose character changed since the previous
+ * frame, each as the gap from the cell of the previous tile listed (from -1 for the first one), so
+ * a move usually takes a few dozen bytes instead of a whole map. A full frame is sent again
+ * whenever player reaches a new level.
+ */
+class GameServer implements Closeable {
+    /** Magic number at the start of a hello ("MZSV"). */
+    static final int MAGIC = 0x4D5A5356;
+    /** Version of the protocol. */
+    static final byte FORMAT_VERSION = 1;
+    /** Tag of a frame holding every tile. */
+    static final byte TAG_FULL = 1;
+    /** Tag of a frame holding the tiles changed since the previous frame. */
+    static final byte TAG_DELTA = 2;
+    /** Tag of the frame sent when player has died. */
+    static final byte TAG_OVER = 3;
+
+    private final ServerSocket serverSocket;
+    /** Cache shared by the sessions. */
+    private final LevelCache levelCache;
+    /** Connections being served. */
+    private final Set<Socket> clients = ConcurrentHashMap.newKeySet();
+    private final Thread acceptor;
+    /** Number of connections accepted. */
+    private final AtomicInteger accepted = new AtomicInteger();
+    /** Number of frames and bytes sent. */
+    final LongAdder framesSent = new LongAdder();
+    final LongAdder bytesSent = new LongAdder();
+    /** Number of sessions ended by an error other than the client disconnecting. */
+    final LongAdder sessionsFailed = new LongAdder();
+
+    /**
+     * Constructor of the class. Starts accepting connections.
+     * @param port port to listen on, or 0 for any free port
+     * @param levelCache cache shared by the sessions
+     */
+    GameServer(int port, LevelCache levelCache) {
+        this.levelCache = levelCache;
+        try {
+            serverSocket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+        } catch (IOException excp) {
+            throw new IllegalArgumentException(excp.getMessage());
+        }
+        acceptor = new Thread(this::acceptConnections, "game-server");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    /** Port the server listens on. */
+    int port() {
+        return serverSocket.getLocalPort();
+    }
+
+    /** Number of sessions being played. */
+    int activeSessions() {
+        return clients.size();
+    }
+
+    /** Stop accepting connections and close every connection. */
+    @Override
+    public void close() {
+        try {
+            serverSocket.close();
+            for (Socket s : clients) {
+                s.close();
+            }
+            acceptor.join();
+        } catch (IOException excp) {
+            throw new IllegalArgumentException(excp.getMessage());
+        } catch (InterruptedException excp) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void acceptConnections() {
+        while (!serverSocket.isClosed()) {
+            Socket socket;
+            try {
+                socket = serverSocket.accept();
+            } catch (IOException excp) {
+                // server socket closed
+                return;
+            }
+            clients.add(socket);
+            // one platform thread per session; sessions block on reads, not on the CPU
+            Thread t = new Thread(() -> serve(socket), "game-session-"
+                    + accepted.incrementAndGet());
+            t.setDaemon(true);
+            t.start();
+        }
+    }
+
+    /** Play a session over a connection until player dies or the client disconnects. */
+    private void serve(Socket socket) {
+        try (socket) {
+            socket.setTcpNoDelay(true);
+            DataInputStream in = new DataInputStream(
+                    new BufferedInputStream(socket.getInputStream()));
+            DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(socket.getOutputStream()));
+            if (in.readInt() != MAGIC || in.readByte() != FORMAT_VERSION) {
+                DebugLog.log(DebugLog.Level.WARN, "Rejected client with unknown protocol");
+                return;
+            }
+            int seed = in.readInt();
+            String playerName = in.readUTF();
+            GameSession session = new GameSession(seed, playerName, levelCache);
+            DebugLog.log(DebugLog.Level.INFO, () -> playerName + " joined on seed " + seed);
+            FrameWriter frames = new FrameWriter(out);
+            frames.write(session);
+            int key;
+            while (!session.isOver() && (key = in.read()) != -1) {
+                session.step((char) key);
+                frames.write(session);
+            }
+        } catch (EOFException | SocketException excp) {
+            // client disconnected or server closed
+        } catch (IOException | RuntimeException excp) {
+            // the connection is closed, so the client sees the session end
+            sessionsFailed.increment();
+            DebugLog.log(DebugLog.Level.WARN, "Session failed: " + excp);
+        } finally {
+            clients.remove(socket);
+        }
+    }
+
+    /** Writes the frames of a session, remembering the tiles sent last. */
+    private class FrameWriter {
+        private final DataOutputStream out;
+        /** Characters of the tiles sent last, indexed by cell. */
+        private final char[] sent = new char[Engine.WORLD_WIDTH * Engine.WORLD_HEIGHT];
+        /** Level of the tiles sent last, or 0 if none have been sent. */
+        private int level;
+
+        FrameWriter(DataOutputStream out) {
+            this.out = out;
+        }
+
+        /** Write and flush the frame for the current state of a session. */
+        void write(GameSession session) throws IOException {
+            int start = out.size();
+            Engine engine = session.engine();
+            GameMechanics gm = engine.gameMech;
+            if (session.isOver()) {
+                out.writeByte(TAG_OVER);
+                out.writeInt(gm.player.health);
+            } else {
+                TETile[][] visible = gm.fieldOfView(engine.tiles, engine.fovTiles());
+                int height = visible[0].length;
+                if (engine.level != level) {
+                    level = engine.level;
+                    out.writeByte(TAG_FULL);
+                    out.writeInt(level);
+                    out.writeInt(gm.player.health);
+                    out.writeShort(visible.length);
+                    out.writeShort(height);
+                    for (int x = 0; x < visible.length; x += 1) {
+                        for (int y = 0; y < height; y += 1) {
+                            sent[x * height + y] = visible[x][y].character();
+                            out.writeChar(sent[x * height + y]);
+                        }
+                    }
+                } else {
+                    out.writeByte(TAG_DELTA);
+                    out.writeInt(gm.player.health);
+                    int count = 0;
+                    for (int x = 0; x < visible.length; x += 1) {
+                        for (int y = 0; y < height; y += 1) {
+                            if (visible[x][y].character() != sent[x * height + y]) {
+                                count += 1;
+                            }
+                        }
+                    }
+                    writeVarint(out, count);
+                    int previous = -1;
+                    for (int x = 0; x < visible.length; x += 1) {
+                        for (int y = 0; y < height; y += 1) {
+                            int cell = x * height + y;
+                            char c = visible[x][y].character();
+                            if (c != sent[cell]) {
+                                writeVarint(out, cell - previous);
+                                out.writeChar(c);
+                                sent[cell] = c;
+                                previous = cell;
+                            }
+                        }
+                    }
+                }
+            }
+            out.flush();
+            framesSent.increment();
+            bytesSent.add(out.size() - start);
+        }
+    }
+
+    /** Write a non-negative integer in 7-bit groups, least significant first. */
+    static void writeVarint(DataOutputStream out, int v) throws IOException {
+        while ((v & ~0x7F) != 0) {
+            out.writeByte((v & 0x7F) | 0x80);
+            v >>>= 7;
+        }
+        out.writeByte(v);
+    }
+
+    /** Read an integer written by writeVarint(). */
+    static int readVarint(DataInputStream in) throws IOException {
+        int v = 0;
+        for (int shift = 0; ; shift += 7) {
+            int b = in.readUnsignedByte();
+            v |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return v;
+            }
+        }
+    }
+
+    /** Client of a GameServer, which keeps the tiles player can see up to date from frames. */
+    static class Client implements Closeable {
+        private final Socket socket;
+        private final DataInputStream in;
+        private final DataOutputStream out;
+        /** Characters of the tiles player can see, indexed by [x][y]. */
+        char[][] tiles;
+        int level;
+        int health;
+        /** Whether player has died. */
+        boolean over;
+
+        /**
+         * Connect to a server on the loopback interface and start a session. Reads the first
+         * frame.
+         * @param port port of the server
+         * @param seed seed of the session
+         * @param playerName name of player
+         */
+        Client(int port, int seed, String playerName) {
+            try {
+                socket = new Socket(InetAddress.getLoopbackAddress(), port);
+                socket.setTcpNoDelay(true);
+                in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+                out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+                out.writeInt(MAGIC);
+                out.writeByte(FORMAT_VERSION);
+                out.writeInt(seed);
+                out.writeUTF(playerName);
+                out.flush();
+            } catch (IOException excp) {
+                throw new IllegalArgumentException(excp.getMessage());
+            }
+            readFrame();
+        }
+
+        /** Send a key and read the frame that answers it. */
+        void press(char key) {
+            try {
+                out.writeByte(key);
+                out.flush();
+            } catch (IOException excp) {
+                throw new IllegalArgumentException(excp.getMessage());
+            }
+            readFrame();
+        }
+
+        private void readFrame() {
+            try {
+                byte tag = in.readByte();
+                if (tag == TAG_FULL) {
+                    level = in.readInt();
+                    health = in.readInt();
+                    tiles = new char[in.readShort()][in.readShort()];
+                    for (char[] column : tiles) {
+                        for (int y = 0; y < column.length; y += 1) {
+                            column[y] = in.readChar();
+                        }
+                    }
+                } else if (tag == TAG_DELTA) {
+                    health = in.readInt();
+                    int height = tiles[0].length;
+                    int count = readVarint(in);
+                    int cell = -1;
+                    for (int i = 0; i < count; i += 1) {
+                        cell += readVarint(in);
+                        tiles[cell / height][cell % height] = in.readChar();
+                    }
+                } else if (tag == TAG_OVER) {
+                    health = in.readInt();
+                    over = true;
+                } else {
+                    throw new IllegalArgumentException("Unknown frame " + tag);
+                }
+            } catch (IOException excp) {
+                throw new IllegalArgumentException(excp.getMessage());
+            }
+        }
+
+        @Override
+        public void close() {
+            try {
+                socket.close();
+            } catch (IOException excp) {
+                throw new IllegalArgumentException(excp.getMessage());
+            }
+        }
+    }
+
+    /** Serve sessions on a port of the loopback interface until the JVM is stopped, e.g.
+     * "GameServer 6161". */
+    public static void main(String[] args) throws InterruptedException {
+        if (args.length != 1) {
+            System.out.println("Usage: GameServer PORT");
+            return;
+        }
+        GameServer server = new GameServer(Integer.parseInt(args[0]),
+                new LevelCache(LevelCache.DEFAULT_MAX_BYTES, null));
+        System.out.println("Listening on port " + server.port());
+        server.acceptor.join();
+    }
+}
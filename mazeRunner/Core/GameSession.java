@@ -0,0 +1,235 @@
+package mazeRunner.Core;
+
+import mazeRunner.TileEngine.TETile;
+
+/**
+ * Headless game session. Advances the game one action at a time without rendering, printing or
+ * exiting the JVM, so that bots and tests can simulate many games inside one process. Levels
+ * progress by the same rules as the interactive game, i.e. the next level is generated from the
+ * next integer of the RNG of the current level.
+ */
+public class GameSession {
+    /** Actions that a player can take in a turn. */
+    public enum Action {
+        UP, DOWN, LEFT, RIGHT, IDLE, TELEPORT, TOGGLE_LIGHTS;
+
+        /**
+         * Get the action bound to a key, e.g. "w" moves player up.
+         * @param key key pressed, case-insensitive
+         * @return action bound to the key, or null if the key is not bound to any action
+         */
+        public static Action fromKey(char key) {
+            return switch (Character.toLowerCase(key)) {
+                case 'w' -> UP;
+                case 's' -> DOWN;
+                case 'a' -> LEFT;
+                case 'd' -> RIGHT;
+                case ' ' -> IDLE;
+                case 'h' -> TELEPORT;
+                case 't' -> TOGGLE_LIGHTS;
+                default -> null;
+            };
+        }
+    }
+
+    /** Outcome of a step. */
+    public enum Outcome {
+        /** Player changed position, including by teleporting. */
+        MOVED,
+        /** Action is resolved but player stays in place, e.g. bumping into a wall or idling. */
+        STAYED,
+        /** Player reached the exit and a new level is generated. */
+        ADVANCED,
+        /** Player's health falls to 0. The session is over. */
+        DIED,
+        /** Key is not bound to any action. Nothing happens. */
+        IGNORED
+    }
+
+    /** Engine holding the game state. */
+    private final Engine engine;
+    /** Whether the player has died. */
+    private boolean over;
+    /** Number of actions taken. */
+    private int turn;
+    /** Whether monsters take their turns after every action of player. Real-time games move
+     * monsters on a clock instead; see RealTimeLoop and tickMonsters(). */
+    boolean monstersOnTurns = true;
+
+    /**
+     * Start a new game.
+     * @param seed seed for RNG
+     * @param playerName name of player
+     */
+    public GameSession(int seed, String playerName) {
+        this(seed, playerName, GameMechanics.DEFAULT_OBJECT_DENSITY);
+    }
+
+    /**
+     * Start a new game with more or fewer game objects on each level than usual.
+     * @param seed seed for RNG
+     * @param playerName name of player
+     * @param objectDensity multiplier of the numbers of torches, breads and portals
+     */
+    public GameSession(int seed, String playerName, double objectDensity) {
+        this.engine = new Engine();
+        engine.objectDensity = objectDensity;
+        engine.runEngine(seed, playerName, GameMechanics.INIT_PLAYER_HEALTH);
+    }
+
+    /**
+     * Start a new game whose levels are restored from or added to a level cache, so that many
+     * sessions playing the same seed, e.g. in a tournament, share one copy of each level and each
+     * session only holds what it has changed. See LevelCache.
+     * @param seed seed for RNG
+     * @param playerName name of player
+     * @param levelCache cache shared by the sessions
+     */
+    GameSession(int seed, String playerName, LevelCache levelCache) {
+        this.engine = new Engine();
+        engine.levelCache = levelCache;
+        engine.runEngine(seed, playerName, GameMechanics.INIT_PLAYER_HEALTH);
+    }
+
+    /**
+     * Continue the game held by an engine, e.g. one that has just been loaded. If the engine has a
+     * prefetcher, the next level starts being generated in the background.
+     * @param engine engine whose world has been generated or loaded
+     */
+    GameSession(Engine engine) {
+        this.engine = engine;
+        engine.prefetchNextLevel();
+    }
+
+    /**
+     * Take the action bound to a key.
+     * @param key key pressed, case-insensitive
+     * @return outcome of the action
+     */
+    public Outcome step(char key) {
+        Action action = Action.fromKey(key);
+        if (action == null) {
+            return Outcome.IGNORED;
+        }
+        return step(action);
+    }
+
+    /**
+     * Take an action.
+     * @param action action to take
+     * @return outcome of the action
+     * @throws IllegalStateException if the session is over
+     */
+    public Outcome step(Action action) {
+        if (over) {
+            throw new IllegalStateException("Game is over");
+        }
+        long start = Metrics.start();
+        GameMechanics gm = engine.gameMech;
+        Position before = gm.player.pos;
+        int outcome = switch (action) {
+            case UP -> gm.moveGameObject(gm.player, 0, 1);
+            case DOWN -> gm.moveGameObject(gm.player, 0, -1);
+            case LEFT -> gm.moveGameObject(gm.player, -1, 0);
+            case RIGHT -> gm.moveGameObject(gm.player, 1, 0);
+            case IDLE -> gm.idle();
+            case TELEPORT -> gm.teleport();
+            case TOGGLE_LIGHTS -> {
+                gm.lightSwitch();
+                yield 0;
+            }
+        };
+        // monsters only take a turn when player spends one, i.e. moves, teleports or idles, so
+        // toggling the lights or walking into a wall gives them no free move
+        boolean spent = gm.player.pos != before || action == Action.IDLE;
+        if (outcome == 0 && spent && monstersOnTurns) {
+            outcome = engine.mobs.tick(gm, engine.mobBudgetNanos);
+        }
+        turn += 1;
+        Metrics.stop(Metrics.Timer.TURN, start);
+        switch (outcome) {
+            case 1 -> {
+                engine.advanceLevel();
+                return Outcome.ADVANCED;
+            }
+            case -1 -> {
+                over = true;
+                return Outcome.DIED;
+            }
+            default -> {
+                return gm.player.pos == before ? Outcome.STAYED : Outcome.MOVED;
+            }
+        }
+    }
+
+    /**
+     * Let monsters take their turns without player taking an action.
+     * @return DIED if player's health falls to 0, STAYED otherwise
+     * @throws IllegalStateException if the session is over
+     */
+    Outcome tickMonsters() {
+        if (over) {
+            throw new IllegalStateException("Game is over");
+        }
+        if (engine.mobs.tick(engine.gameMech, engine.mobBudgetNanos) == -1) {
+            over = true;
+            return Outcome.DIED;
+        }
+        return Outcome.STAYED;
+    }
+
+    /** Whether the player has died. */
+    public boolean isOver() {
+        return over;
+    }
+
+    /** Current level. */
+    public int level() {
+        return engine.level;
+    }
+
+    /** Current health of player. */
+    public int health() {
+        return engine.gameMech.player.health;
+    }
+
+    /** Number of actions taken in this session. */
+    public int turn() {
+        return turn;
+    }
+
+    /** Current position of player. */
+    public Position playerPosition() {
+        return engine.gameMech.player.pos;
+    }
+
+    /** Tiles representing the current game state. The array is shared with the session and
+     * changes as the session advances. */
+    public TETile[][] tiles() {
+        return engine.tiles;
+    }
+
+    /**
+     * Hash of the game state, i.e. the tiles, level, health of player, position of player and
+     * whether lights are on. Two sessions in the same state have the same hash.
+     */
+    public long stateHash() {
+        long h = 0xcbf29ce484222325L;
+        for (TETile[] column : engine.tiles) {
+            for (TETile t : column) {
+                h = (h ^ t.character()) * 0x100000001b3L;
+            }
+        }
+        GameMechanics gm = engine.gameMech;
+        h = (h ^ engine.level) * 0x100000001b3L;
+        h = (h ^ gm.player.health) * 0x100000001b3L;
+        h = (h ^ gm.player.pos.getX()) * 0x100000001b3L;
+        h = (h ^ gm.player.pos.getY()) * 0x100000001b3L;
+        return (h ^ (gm.lightsOn ? 1 : 0)) * 0x100000001b3L;
+    }
+
+    /** Engine holding the game state. */
+    Engine engine() {
+        return engine;
+    }
+}
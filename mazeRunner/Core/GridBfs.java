@@ -0,0 +1,126 @@
+package mazeRunner.Core;
+
+import mazeRunner.TileEngine.TETile;
+import mazeRunner.TileEngine.Tileset;
+
+import java.util.Arrays;
+
+import static mazeRunner.Core.Engine.WORLD_HEIGHT;
+import static mazeRunner.Core.Engine.WORLD_WIDTH;
+
+/**
+ * Breadth-first search over the tiles of a world, counting the number of steps player needs to
+ * reach each tile. Player can step on every tile except walls and empty space. If game mechanics
+ * are given, player can also teleport from a portal to the other side of the pair in one step,
+ * and the search does not continue past the exit, which ends the level. Buffers are allocated once
+ * and reused by every search.
+ */
+class GridBfs {
+    /** Distance of a tile that cannot be reached. */
+    static final int UNREACHABLE = -1;
+
+    /** Number of steps to reach each tile, indexed by x + y * WORLD_WIDTH. */
+    final int[] dist = new int[WORLD_WIDTH * WORLD_HEIGHT];
+    /** Queue of tiles to visit. */
+    private final int[] queue = new int[WORLD_WIDTH * WORLD_HEIGHT];
+
+    /** Whether player can step on a tile. */
+    static boolean isWalkable(TETile t) {
+        return !t.isSameType(Engine.patternWall) && !t.isSameType(Tileset.NOTHING);
+    }
+
+    /** Return the index of the tile at (x, y) in dist. */
+    static int cellOf(int x, int y) {
+        return x + y * WORLD_WIDTH;
+    }
+
+    /** Return the index of the tile at a given position in dist. */
+    static int cellOf(Position pos) {
+        return cellOf(pos.getX(), pos.getY());
+    }
+
+    /**
+     * Count the number of steps to reach each tile from a given position.
+     * @param tiles tile array representing game state
+     * @param src position to start from
+     * @return dist, in which unreachable tiles are UNREACHABLE
+     */
+    int[] run(TETile[][] tiles, Position src) {
+        return run(tiles, src, null);
+    }
+
+    /**
+     * Count the number of steps to reach each tile from a given position, teleporting through
+     * portals and stopping at the exit.
+     * @param tiles tile array representing game state
+     * @param src position to start from
+     * @param gm game mechanics holding the portals, or null to ignore portals and exit
+     * @return dist, in which unreachable tiles are UNREACHABLE
+     */
+    int[] run(TETile[][] tiles, Position src, GameMechanics gm) {
+        Arrays.fill(dist, UNREACHABLE);
+        int head = 0;
+        int tail = 0;
+        int s = cellOf(src);
+        dist[s] = 0;
+        queue[tail] = s;
+        tail += 1;
+        while (head < tail) {
+            int v = queue[head];
+            head += 1;
+            int x = v % WORLD_WIDTH;
+            int y = v / WORLD_WIDTH;
+            if (gm != null) {
+                if (tiles[x][y].isSameType(Engine.patternExit)) {
+                    continue;
+                }
+                if (tiles[x][y].isSameType(Engine.patternPortal)) {
+                    Position here = new Position(x, y);
+                    Position there = gm.findPortalPairFmPos(here).getOtherPortalPos(here);
+                    tail = visit(tiles, there.getX(), there.getY(), dist[v] + 1, tail);
+                }
+            }
+            tail = visit(tiles, x + 1, y, dist[v] + 1, tail);
+            tail = visit(tiles, x - 1, y, dist[v] + 1, tail);
+            tail = visit(tiles, x, y + 1, dist[v] + 1, tail);
+            tail = visit(tiles, x, y - 1, dist[v] + 1, tail);
+        }
+        return dist;
+    }
+
+    /** Enqueue the tile at (x, y) if it is walkable and not yet visited. Return the new tail. */
+    private int visit(TETile[][] tiles, int x, int y, int d, int tail) {
+        if (x < 0 || x >= WORLD_WIDTH || y < 0 || y >= WORLD_HEIGHT) {
+            return tail;
+        }
+        int w = cellOf(x, y);
+        if (dist[w] != UNREACHABLE || !isWalkable(tiles[x][y])) {
+            return tail;
+        }
+        dist[w] = d;
+        queue[tail] = w;
+        return tail + 1;
+    }
+
+    /**
+     * Number of steps to reach a wall tile, e.g. an exit, which player enters from an adjacent
+     * walkable tile. Must be called after run().
+     * @param x x coordinate of the tile
+     * @param y y coordinate of the tile
+     * @return number of steps, or UNREACHABLE if no adjacent tile is reachable
+     */
+    int stepsToEnter(int x, int y) {
+        int best = UNREACHABLE;
+        int[][] neighbours = {{x + 1, y}, {x - 1, y}, {x, y + 1}, {x, y - 1}};
+        for (int[] n : neighbours) {
+            if (n[0] < 0 || n[0] >= WORLD_WIDTH || n[1] < 0 || n[1] >= WORLD_HEIGHT) {
+                continue;
+            }
+            int d = dist[cellOf(n[0], n[1])];
+            if (d != UNREACHABLE && (best == UNREACHABLE || d + 1 < best)) {
+                best = d + 1;
+            }
+        }
+        return best;
+    }
+}
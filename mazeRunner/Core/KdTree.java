@@ -10,9 +10,6 @@ public class KdTree {
     /** Max tree layers of a kdTree, including the root node. E.g. MAX_TREE_LAYERS = 3 for a
      * KdTree with max 7 nodes. */
     static final int MAX_TREE_LAYERS = 5;
-    /** Space partitioned by extensions of empty leaf nodes. See private class
-     * EmptyLeafExtensionSpace for details. */
-    static LinkedList<EmptyLeafExtensionSpace> spacePartitions = new LinkedList<>();
     /** Position (coordinates) rooted at the KdTree. */
     Position pos;
     /** "Upper" branch of the KdTree. */
@@ -41,29 +38,27 @@ public class KdTree {
     }
 
     /** Return a list of EmptyLeafExtensionSpace, which delineates non-overlapping spaces in the
-     * world partitioned by the KdTree. */
+     * world partitioned by the KdTree. Every call returns a new list, so trees can be partitioned
+     * on several threads at once, e.g. while a level is prefetched. */
     LinkedList<EmptyLeafExtensionSpace> getPartitionedSpace() {
         EmptyLeafExtensionSpace space = new EmptyLeafExtensionSpace();
+        LinkedList<EmptyLeafExtensionSpace> spacePartitions = new LinkedList<>();
         // pre-order traversal of KdTree
-        preOrderTraversal(this, space);
+        preOrderTraversal(this, space, spacePartitions);
         return spacePartitions;
     }
 
-    /** Reset static variable spacePartitions to empty.*/
-    static void resetPartitionedSpace() {
-        spacePartitions = new LinkedList<>();
-    }
-
     /** Visit empty children of each leaf node in pre-order manner. For each visit, adds
      * partitioned space delineated by the parent nodes of the corresponding empty children of
-     * leaf nodes. */
-    static void preOrderTraversal(KdTree kdt, EmptyLeafExtensionSpace space) {
+     * leaf nodes to spacePartitions. */
+    static void preOrderTraversal(KdTree kdt, EmptyLeafExtensionSpace space,
+                                  LinkedList<EmptyLeafExtensionSpace> spacePartitions) {
         if (kdt == null) {
             spacePartitions.add(space);
             return;
         }
-        preOrderTraversal(kdt.upper, space.changeCoor(kdt.pos, kdt.axis,true));
-        preOrderTraversal(kdt.lower, space.changeCoor(kdt.pos, kdt.axis,false));
+        preOrderTraversal(kdt.upper, space.changeCoor(kdt.pos, kdt.axis,true), spacePartitions);
+        preOrderTraversal(kdt.lower, space.changeCoor(kdt.pos, kdt.axis,false), spacePartitions);
     }
 
     /** Recursive helper function to insert to a KdTree. */
@@ -0,0 +1,97 @@
+package mazeRunner.Core;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+
+/**
+ * Histogram of durations in nanoseconds, e.g. tick times and frame times, from which percentiles
+ * can be read. Values below 16 have a bucket each; larger values share buckets whose width is 1/8
+ * of their power of two, so percentiles are accurate to within 12.5% and the histogram has a fixed
+ * size however many values are recorded. Values can be recorded and read from any thread.
+ */
+class LatencyHistogram {
+    /** Number of values with a bucket each. */
+    private static final int LINEAR = 16;
+    /** Number of buckets per power of two above LINEAR, as a power of two. */
+    private static final int SUB_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    private static final int BUCKETS = LINEAR + (63 - 4) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong total = new AtomicLong();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    /** Record a duration. Negative durations are recorded as 0. */
+    void record(long nanos) {
+        long v = Math.max(nanos, 0);
+        counts.incrementAndGet(bucketOf(v));
+        count.incrementAndGet();
+        total.addAndGet(v);
+        max.accumulate(v);
+    }
+
+    /** Number of durations recorded. */
+    long count() {
+        return count.get();
+    }
+
+    /** Longest duration recorded, or 0 if none. */
+    long max() {
+        return max.get();
+    }
+
+    /** Mean duration, or 0 if none is recorded. */
+    double mean() {
+        long n = count.get();
+        return n == 0 ? 0 : (double) total.get() / n;
+    }
+
+    /**
+     * Duration below which a given fraction of the recorded durations fall, rounded up to the end
+     * of its bucket but never above max().
+     * @param p fraction between 0 and 1, e.g. 0.99
+     * @return duration in nanoseconds, or 0 if none is recorded
+     */
+    long percentile(double p) {
+        long n = count.get();
+        if (n == 0) {
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(p * n));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i += 1) {
+            seen += counts.get(i);
+            if (seen >= target) {
+                return Math.min(upperBoundOf(i), max());
+            }
+        }
+        return max();
+    }
+
+    private static int bucketOf(long v) {
+        if (v < LINEAR) {
+            return (int) v;
+        }
+        int e = 63 - Long.numberOfLeadingZeros(v);
+        int sub = (int) (v >>> (e - SUB_BITS)) & (SUB_BUCKETS - 1);
+        return LINEAR + (e - 4) * SUB_BUCKETS + sub;
+    }
+
+    private static long upperBoundOf(int i) {
+        if (i < LINEAR) {
+            return i;
+        }
+        int e = (i - LINEAR) / SUB_BUCKETS + 4;
+        int sub = (i - LINEAR) % SUB_BUCKETS;
+        long lower = (long) (SUB_BUCKETS + sub) << (e - SUB_BITS);
+        return lower + (1L << (e - SUB_BITS)) - 1;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("count=%d mean=%.1fus p50=%.1fus p99=%.1fus max=%.1fus", count(),
+                mean() / 1e3, percentile(0.5) / 1e3, percentile(0.99) / 1e3, max() / 1e3);
+    }
+}
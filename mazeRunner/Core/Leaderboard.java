@@ -2,18 +2,19 @@ package mazeRunner.Core;
 
 import java.io.File;
 import java.io.Serializable;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.ArrayList;
 
-import static mazeRunner.Core.PersistenceUtils.join;
-import static mazeRunner.Core.PersistenceUtils.writeObject;
-
 /**
- * Allows to save, update and load a leaderboard that records the top ENTRIES_TO_KEEP entries,
+ * Allows to load and update a leaderboard that records the top ENTRIES_TO_KEEP entries,
  * sorted by levels attained by players in descending order. The entry of the highest level
- * is displayed at the top. Name of player and time of completion are also recorded.
+ * is displayed at the top. Name of player and time of completion are also recorded. Scores are
+ * persisted by LeaderboardStore.
  */
 public class Leaderboard implements Serializable {
+    private static final long serialVersionUID = -4692600176130736353L;
     /** The number of top entries to keep. */
     static int ENTRIES_TO_KEEP = 4;
     /** Array recording the top entries. */
@@ -22,7 +23,8 @@ public class Leaderboard implements Serializable {
     Leaderboard() {}
 
     /**
-     * Load existing leaderboard.
+     * Load leaderboard saved by earlier versions of the game, which serialize the top entries
+     * directly to a file.
      * @param file file to load from
      * @return leaderboard loaded
      */
@@ -31,44 +33,58 @@ public class Leaderboard implements Serializable {
             LBEntries = PersistenceUtils.readObject(file, ArrayList.class);
         } else {
             LBEntries = new ArrayList<>();
-            System.out.println("creating new LBEntries");
+            DebugLog.log(DebugLog.Level.DEBUG, "creating new LBEntries");
+        }
+        return this;
+    }
+
+    /**
+     * Load the top ENTRIES_TO_KEEP entries from a leaderboard store.
+     * @param store store that records all scores
+     * @return leaderboard loaded
+     */
+    Leaderboard load(LeaderboardStore store) {
+        LBEntries = new ArrayList<>();
+        for (LeaderboardStore.Record r : store.top(ENTRIES_TO_KEEP)) {
+            LBEntries.add(new LBEntry(r.playerName, r.level, LocalDateTime.ofInstant(
+                    Instant.ofEpochMilli(r.epochMilli), ZoneId.systemDefault())));
         }
         return this;
     }
 
     /**
      * Update leaderboard. If the level attained by the current player is higher than any of the
-     * current top 3 entries, insert the current entry to the leaderboard such that it still
-     * records the top 3 entries in descending order (sorted by level). Insert directly to the
-     * leaderboard if the leaderboard is empty.
+     * current top entries, insert the current entry to the leaderboard such that it still
+     * records the top ENTRIES_TO_KEEP entries in descending order (sorted by level). Append the
+     * entry if the leaderboard is not yet full.
      * @param playerName name of current player
      * @param level current level attained
      */
     void update(String playerName, int level) {
-        boolean inserted = false;
         for (int i = 0; i < LBEntries.size(); i += 1) {
             if (level > LBEntries.get(i).level) {
-                LBEntry lbEntry = new LBEntry(playerName, level);
-                LBEntries.add(i, lbEntry);
-                LBEntries.remove(LBEntries.size() - 1);
-                inserted = true;
+                LBEntries.add(i, new LBEntry(playerName, level));
+                if (LBEntries.size() > ENTRIES_TO_KEEP) {
+                    LBEntries.remove(LBEntries.size() - 1);
+                }
                 return;
             }
         }
-        if (!inserted && LBEntries.size() < ENTRIES_TO_KEEP) {
+        if (LBEntries.size() < ENTRIES_TO_KEEP) {
             LBEntries.add(new LBEntry(playerName, level));
         }
     }
 
-    /** Save leaderboard to ./.gamesave/lbEntries. */
-    void save() {
-        writeObject(join(Engine.GAMESAVE, "lbEntries"), LBEntries);
+    /** Convert date and time of completion to milliseconds since epoch. */
+    static long toEpochMilli(LocalDateTime date) {
+        return date.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
     }
 
     /**
      * Nested class that records details of each entry including name, level attained and date.
      */
     class LBEntry implements Serializable {
+        private static final long serialVersionUID = 1133079883754198401L;
         /** Name of player. */
         String playerName;
         /** Level attained. */
@@ -78,9 +94,14 @@ public class Leaderboard implements Serializable {
 
         /** Constructor of the nested class. Date and time are recorded as the current time. */
         LBEntry(String playerName, int level) {
+            this(playerName, level, LocalDateTime.now());
+        }
+
+        /** Constructor of the nested class with a given date and time of completion. */
+        LBEntry(String playerName, int level, LocalDateTime date) {
             this.playerName = playerName;
             this.level = level;
-            this.date = LocalDateTime.now();
+            this.date = date;
         }
     }
-}
\ No newline at end of file
+}
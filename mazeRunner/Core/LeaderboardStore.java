@@ -0,0 +1,315 @@
+package mazeRunner.Core;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static mazeRunner.Core.PersistenceUtils.join;
+
+/**
+ * Backend of the leaderboard. Every score is appended to a log file as a small binary record,
+ * so submitting a score never rewrites the existing entries. All entries are indexed in memory
+ * by a skip list sorted by level in descending order (ties are ranked by time of completion,
+ * earliest first), which makes top-K queries a walk over the first K nodes. The best entry of
+ * each player is tracked alongside the index.
+ *
+ * The store is safe for concurrent writers. Within a process, submitting a score only updates
+ * lock-free structures and queues the record; queued records are written to the log in batches
+ * by flush(), which is called when FLUSH_BATCH_SIZE records are queued, periodically by a
+ * background thread and on exit. Across processes sharing a .gamesave directory, every flush
+ * holds an exclusive FileChannel lock on the log and first indexes records appended by other
+ * processes, so no score is lost.
+ */
+class LeaderboardStore {
+    /** Name of the score log inside the .gamesave directory. */
+    static final String LOG_NAME = "lbLog";
+    /** Name of the legacy leaderboard file, which is imported if no score log exists yet. */
+    static final String LEGACY_NAME = "lbEntries";
+    /** Number of queued records that triggers a flush. */
+    static final int FLUSH_BATCH_SIZE = 64;
+    /** Interval between periodic flushes in milliseconds. */
+    static final long FLUSH_INTERVAL_MS = 200;
+
+    /** Stores opened in this process, keyed by log file, so that sessions share one index. */
+    private static final Map<File, LeaderboardStore> OPEN_STORES = new ConcurrentHashMap<>();
+    /** Monitors that serialize access to each log file within this process. FileChannel locks
+     * are held by the whole process, so they do not exclude threads of the same process. */
+    private static final Map<File, Object> FILE_MONITORS = new ConcurrentHashMap<>();
+    /** Background thread that flushes all open stores periodically. */
+    private static ScheduledExecutorService flusher;
+
+    /** Append-only file recording every score submitted. */
+    private final File logFile;
+    /** All entries sorted by rank. */
+    private final ConcurrentSkipListSet<Record> ranked = new ConcurrentSkipListSet<>();
+    /** Best entry of each player, keyed by name of player. */
+    private final Map<String, Record> personalBests = new ConcurrentHashMap<>();
+    /** Sequence number given to the next entry. Used to break ties between identical entries. */
+    private final AtomicLong nextSeq = new AtomicLong();
+    /** Records submitted but not yet written to the log. */
+    private final ConcurrentLinkedQueue<Record> pending = new ConcurrentLinkedQueue<>();
+    /** Number of records in pending. */
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    /** Number of bytes of the log that have been indexed. Guarded by this. */
+    private long logOffset = 0;
+
+    /**
+     * Constructor of the class. Index all entries recorded in the given log file, if it exists.
+     * @param logFile file to append scores to
+     */
+    LeaderboardStore(File logFile) {
+        this.logFile = logFile;
+        if (logFile.exists()) {
+            refresh();
+        }
+    }
+
+    /**
+     * Open the score log in the given directory. Stores are shared within a process, i.e. the
+     * same store is returned for the same directory. Entries of the legacy leaderboard file are
+     * imported to a new score log if the directory does not contain one.
+     * @param dir directory containing the score log
+     * @return leaderboard store
+     */
+    static LeaderboardStore open(File dir) {
+        File log = join(dir, LOG_NAME).getAbsoluteFile();
+        return OPEN_STORES.computeIfAbsent(log, f -> {
+            LeaderboardStore store = new LeaderboardStore(f);
+            File legacy = join(dir, LEGACY_NAME);
+            if (!f.exists() && legacy.exists()) {
+                store.importLegacy(legacy);
+            }
+            startFlusher();
+            return store;
+        });
+    }
+
+    /**
+     * Record a score. The entry is indexed immediately and queued to be appended to the score
+     * log. Call flush() to make sure the entry is written.
+     * @param playerName name of player
+     * @param level level attained
+     * @return the recorded entry
+     */
+    Record submit(String playerName, int level) {
+        Record r = index(playerName, level, System.currentTimeMillis());
+        pending.add(r);
+        if (pendingCount.incrementAndGet() >= FLUSH_BATCH_SIZE) {
+            flush();
+        }
+        return r;
+    }
+
+    /**
+     * Write all queued records to the end of the score log. Records appended by other
+     * processes since the last flush are indexed first.
+     */
+    synchronized void flush() {
+        if (pendingCount.get() == 0 && !logFile.exists()) {
+            return;
+        }
+        withLock(channel -> {
+            catchUp(channel);
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            Record r;
+            while ((r = pending.poll()) != null) {
+                pendingCount.decrementAndGet();
+                r.write(out);
+            }
+            if (bytes.size() > 0) {
+                channel.write(ByteBuffer.wrap(bytes.toByteArray()), logOffset);
+                logOffset += bytes.size();
+            }
+        });
+    }
+
+    /** Index records appended to the score log by other processes. */
+    synchronized void refresh() {
+        withLock(this::catchUp);
+    }
+
+    /**
+     * Return the top k entries, sorted by rank.
+     * @param k maximum number of entries to return
+     * @return top entries
+     */
+    List<Record> top(int k) {
+        List<Record> out = new ArrayList<>(k);
+        for (Record r : ranked) {
+            if (out.size() >= k) {
+                break;
+            }
+            out.add(r);
+        }
+        return out;
+    }
+
+    /**
+     * Return the best entry of a player.
+     * @param playerName name of player
+     * @return best entry of the player, or null if the player has no entries
+     */
+    Record personalBest(String playerName) {
+        return personalBests.get(playerName);
+    }
+
+    /** Return the number of entries recorded. */
+    int size() {
+        return ranked.size();
+    }
+
+    /** Add an entry to the index and personal bests. */
+    private Record index(String playerName, int level, long epochMilli) {
+        Record r = new Record(playerName, level, epochMilli, nextSeq.getAndIncrement());
+        ranked.add(r);
+        personalBests.merge(playerName, r, (best, cur) -> cur.compareTo(best) < 0 ? cur : best);
+        return r;
+    }
+
+    /** Import entries of the legacy leaderboard file, unless another process has started the
+     * score log in the meantime. */
+    private synchronized void importLegacy(File legacy) {
+        List<Leaderboard.LBEntry> legacyEntries;
+        try {
+            legacyEntries = new Leaderboard().load(legacy).LBEntries;
+        } catch (IllegalArgumentException excp) {
+            // unreadable legacy leaderboard is not imported
+            return;
+        }
+        withLock(channel -> {
+            if (channel.size() > 0) {
+                catchUp(channel);
+                return;
+            }
+            for (Leaderboard.LBEntry e : legacyEntries) {
+                pending.add(index(e.playerName, e.level, Leaderboard.toEpochMilli(e.date)));
+                pendingCount.incrementAndGet();
+            }
+        });
+        flush();
+    }
+
+    /**
+     * Index every complete record between the indexed part of the log and its end. A truncated
+     * record at the end of the log, e.g. left by a writer that crashed, is removed so that
+     * records appended afterwards stay aligned.
+     */
+    private void catchUp(FileChannel channel) throws IOException {
+        long size = channel.size();
+        if (size <= logOffset) {
+            return;
+        }
+        ByteBuffer buf = ByteBuffer.allocate((int) (size - logOffset));
+        while (buf.hasRemaining() && channel.read(buf, logOffset + buf.position()) >= 0) {
+            // read until the end of the log
+        }
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(buf.array()));
+        int consumed = 0;
+        try {
+            while (consumed < buf.capacity()) {
+                int level = in.readInt();
+                long epochMilli = in.readLong();
+                String playerName = in.readUTF();
+                index(playerName, level, epochMilli);
+                consumed = buf.capacity() - in.available();
+            }
+        } catch (EOFException excp) {
+            channel.truncate(logOffset + consumed);
+        }
+        logOffset += consumed;
+    }
+
+    /** Run the given action while holding an exclusive lock on the score log. */
+    private void withLock(LockedAction action) {
+        Object monitor = FILE_MONITORS.computeIfAbsent(logFile.getAbsoluteFile(), f -> new Object());
+        synchronized (monitor) {
+            try (FileChannel channel = new RandomAccessFile(logFile, "rw").getChannel()) {
+                FileLock lock = channel.lock();
+                try {
+                    action.run(channel);
+                } finally {
+                    lock.release();
+                }
+            } catch (IOException excp) {
+                throw new IllegalArgumentException(excp.getMessage());
+            }
+        }
+    }
+
+    /** Start the background thread that flushes all open stores, if not already started. */
+    private static synchronized void startFlusher() {
+        if (flusher != null) {
+            return;
+        }
+        flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "leaderboard-flusher");
+            t.setDaemon(true);
+            return t;
+        });
+        flusher.scheduleWithFixedDelay(LeaderboardStore::flushAll, FLUSH_INTERVAL_MS,
+                FLUSH_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        Runtime.getRuntime().addShutdownHook(new Thread(LeaderboardStore::flushAll));
+    }
+
+    /** Flush every open store that has queued records. */
+    private static void flushAll() {
+        for (LeaderboardStore store : OPEN_STORES.values()) {
+            if (store.pendingCount.get() > 0) {
+                store.flush();
+            }
+        }
+    }
+
+    /** Action on the score log that runs while the log is locked. */
+    private interface LockedAction {
+        void run(FileChannel channel) throws IOException;
+    }
+
+    /**
+     * An entry of the leaderboard. Ordered by rank, i.e. the entry of the highest level comes
+     * first.
+     */
+    static class Record implements Comparable<Record> {
+        /** Name of player. */
+        final String playerName;
+        /** Level attained. */
+        final int level;
+        /** Time of completion in milliseconds since epoch. */
+        final long epochMilli;
+        /** Order in which the entry is indexed. */
+        final long seq;
+
+        Record(String playerName, int level, long epochMilli, long seq) {
+            this.playerName = playerName;
+            this.level = level;
+            this.epochMilli = epochMilli;
+            this.seq = seq;
+        }
+
+        /** Write the entry as a binary record. */
+        void write(DataOutput out) throws IOException {
+            out.writeInt(level);
+            out.writeLong(epochMilli);
+            out.writeUTF(playerName);
+        }
+
+        @Override
+        public int compareTo(Record o) {
+            if (level != o.level) {
+                return Integer.compare(o.level, level);
+            }
+            if (epochMilli != o.epochMilli) {
+                return Long.compare(epochMilli, o.epochMilli);
+            }
+            return Long.compare(seq, o.seq);
+        }
+    }
+}
@@ -0,0 +1,327 @@
+package mazeRunner.Core;
+
+import mazeRunner.TileEngine.TETile;
+
+import java.io.File;
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+
+import static mazeRunner.Core.PersistenceUtils.*;
+
+/**
+ * Cache of generated levels, so that sessions playing the same seed with the same settings do not
+ * generate the same level again. A level is cached under a Key made of its seed, the version of
+ * the generator, the size of the world and every setting of the engine that affects generation.
+ *
+ * An Entry is immutable: it holds the tiles of the level as generated, the game objects and the
+ * RNG serialized. An engine restoring a level shares the columns of the tiles of the entry and
+ * only copies a column the first time it changes a tile in it (see Engine.changeTilePattern), so
+ * a level is restored without copying the map. Game objects are deserialized once per entry and
+ * shared too: each session copies only player and monsters, and keeps the objects it removes in
+ * a sparse overlay (see the copy constructor of GameMechanics). Many sessions playing one seed,
+ * e.g. in a tournament, thus share one base world and each costs memory in proportion to what
+ * it has changed.
+ *
+ * Entries in memory are evicted from the least recently used once their estimated footprint
+ * exceeds maxBytes. If a directory is given, entries are also written to it and read back from it
+ * when they are no longer in memory, e.g. by a later run of the game.
+ *
+ * The cache is thread-safe, and a level is generated at most once however many engines ask for it
+ * at the same time: the first engine that misses a key generates the level and the others wait
+ * for it to be put (single flight).
+ */
+class LevelCache {
+    /** Default maximum estimated footprint of the entries in memory, in bytes. */
+    static final long DEFAULT_MAX_BYTES = 64L << 20;
+
+    /** Seed and settings a level is generated from. */
+    static final class Key {
+        final int seed;
+        final int generatorVersion;
+        final int width;
+        final int height;
+        final double objectDensity;
+        final int monsterCount;
+        final int minExitSteps;
+        final LevelVerifier.Policy verifyPolicy;
+
+        Key(int seed, int generatorVersion, int width, int height, double objectDensity,
+            int monsterCount, int minExitSteps, LevelVerifier.Policy verifyPolicy) {
+            this.seed = seed;
+            this.generatorVersion = generatorVersion;
+            this.width = width;
+            this.height = height;
+            this.objectDensity = objectDensity;
+            this.monsterCount = monsterCount;
+            this.minExitSteps = minExitSteps;
+            this.verifyPolicy = verifyPolicy;
+        }
+
+        /** Key of the level an engine generates from a seed with its current settings. */
+        static Key of(Engine engine, int seed) {
+            return new Key(seed, Engine.GENERATOR_VERSION, Engine.WORLD_WIDTH,
+                    Engine.WORLD_HEIGHT, engine.objectDensity, engine.monsterCount,
+                    engine.minExitSteps, engine.verifyPolicy);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key k = (Key) o;
+            return seed == k.seed && generatorVersion == k.generatorVersion && width == k.width
+                    && height == k.height && Double.compare(objectDensity, k.objectDensity) == 0
+                    && monsterCount == k.monsterCount && minExitSteps == k.minExitSteps
+                    && verifyPolicy == k.verifyPolicy;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(seed, generatorVersion, width, height, objectDensity,
+                    monsterCount, minExitSteps, verifyPolicy);
+        }
+
+        @Override
+        public String toString() {
+            return "level_" + seed + "_v" + generatorVersion + "_" + width + "x" + height + "_"
+                    + objectDensity + "_" + monsterCount + "_" + minExitSteps + "_"
+                    + verifyPolicy;
+        }
+    }
+
+    /** Level as generated. Never changed once created. */
+    static final class Entry {
+        /** Tiles of the level. Shared by every engine that restores the level. */
+        final TETile[][] tiles;
+        /** Game mechanics of the level, serialized. */
+        final byte[] gameMech;
+        /** RNG of the level after generation, serialized. */
+        final byte[] random;
+        /** Estimated memory footprint, in bytes. */
+        final long footprint;
+        /** Game mechanics of the level, deserialized when first needed. Never changed. */
+        private GameMechanics base;
+        /** Result of checking the level, computed when first needed. */
+        private LevelVerifier.Report report;
+
+        Entry(TETile[][] tiles, byte[] gameMech, byte[] random) {
+            this.tiles = tiles;
+            this.gameMech = gameMech;
+            this.random = random;
+            // array headers, one reference per tile, and the serialized objects
+            long tileBytes = 16 + 4L * tiles.length + tiles.length * (16 + 4L * tiles[0].length);
+            this.footprint = tileBytes + gameMech.length + random.length + 64;
+        }
+
+        /** Entry holding a copy of the level of an engine. */
+        static Entry of(Engine engine) {
+            TETile[][] tiles = new TETile[engine.tiles.length][];
+            for (int x = 0; x < tiles.length; x += 1) {
+                tiles[x] = engine.tiles[x].clone();
+            }
+            return new Entry(tiles, serialize(engine.gameMech), serialize(engine.random));
+        }
+
+        /** Game mechanics that the game mechanics of sessions are copied from. */
+        synchronized GameMechanics base() {
+            if (base == null) {
+                base = deserialize(gameMech, GameMechanics.class);
+            }
+            return base;
+        }
+
+        /** Result of checking the level, computed on an engine the level is restored into. */
+        synchronized LevelVerifier.Report report(Engine engine) {
+            if (report == null) {
+                report = LevelVerifier.verify(engine, new GridBfs());
+            }
+            return report;
+        }
+    }
+
+    private final long maxBytes;
+    /** Directory entries are written to, or null. */
+    private final File dir;
+    /** Entries in memory, from the least to the most recently used. */
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    /** Levels being generated, completed with their entry when they are put, or with null if
+     * generation failed. */
+    private final HashMap<Key, CompletableFuture<Entry>> inFlight = new HashMap<>();
+    /** Estimated footprint of the entries in memory. */
+    private long bytes;
+    /** Number of levels restored from memory, from disk, and not found. */
+    int hits;
+    int diskHits;
+    int misses;
+
+    /**
+     * Constructor of the class.
+     * @param maxBytes maximum estimated footprint of the entries in memory, in bytes
+     * @param dir directory to write entries to, which is created if it does not exist, or null to
+     * keep entries in memory only
+     */
+    LevelCache(long maxBytes, File dir) {
+        this.maxBytes = maxBytes;
+        this.dir = dir;
+        if (dir != null) {
+            dir.mkdirs();
+        }
+    }
+
+    /**
+     * Replace the level of an engine with the cached level for a key, if there is one. If the
+     * level is being generated by another engine, wait for it. Otherwise the caller must generate
+     * the level and then call put(), or abandon() if generation fails, since other engines asking
+     * for the level wait until then.
+     * @param key key of the level
+     * @param engine engine to restore the level into
+     * @param playerName name of player
+     * @param playerHealth health of player
+     * @return whether the level was cached
+     */
+    boolean restore(Key key, Engine engine, String playerName, int playerHealth) {
+        Entry e = get(key);
+        if (e == null) {
+            return false;
+        }
+        install(key, e, engine, playerName, playerHealth);
+        return true;
+    }
+
+    /**
+     * Cache the level an engine has just generated for a key, after restore() returned false for
+     * it. The engine then shares the cached level like the engines that restore it.
+     */
+    void put(Key key, Engine engine) {
+        Entry e = Entry.of(engine);
+        CompletableFuture<Entry> pending;
+        synchronized (this) {
+            add(key, e);
+            pending = inFlight.remove(key);
+        }
+        if (pending != null) {
+            pending.complete(e);
+        }
+        if (dir != null) {
+            HashMap<String, Serializable> level = new HashMap<>();
+            level.put("tiles", e.tiles);
+            level.put("gameMech", e.gameMech);
+            level.put("random", e.random);
+            writeObject(join(dir, key.toString()), level);
+        }
+        Player p = engine.gameMech.player;
+        install(key, e, engine, p.name, p.health);
+    }
+
+    /** Give up generating the level for a key after restore() returned false for it, letting
+     * another engine waiting for the level generate it. */
+    void abandon(Key key) {
+        CompletableFuture<Entry> pending;
+        synchronized (this) {
+            pending = inFlight.remove(key);
+        }
+        if (pending != null) {
+            pending.complete(null);
+        }
+    }
+
+    /** Replace the level of an engine with the level of an entry. */
+    private static void install(Key key, Entry e, Engine engine, String playerName,
+                                int playerHealth) {
+        engine.shareTiles(e.tiles);
+        engine.random = deserialize(e.random, Random.class);
+        GameMechanics gm = new GameMechanics(e.base(), engine, playerName, playerHealth);
+        engine.gameMech = gm;
+        if (engine.getTilePattern(gm.player.pos) != engine.patternPlayerAvatar) {
+            engine.changeTilePattern(gm.player.pos, engine.patternPlayerAvatar);
+        }
+        if (key.verifyPolicy != LevelVerifier.Policy.OFF) {
+            engine.levelReport = e.report(engine);
+        }
+    }
+
+    /** Number of entries in memory. */
+    synchronized int size() {
+        return entries.size();
+    }
+
+    /** Estimated footprint of the entries in memory, in bytes. */
+    synchronized long bytes() {
+        return bytes;
+    }
+
+    /**
+     * Return the entry for a key from memory or disk, waiting for it if it is being generated.
+     * Return null if the caller must generate it, in which case the key is marked in flight.
+     */
+    private Entry get(Key key) {
+        CompletableFuture<Entry> pending;
+        while (true) {
+            synchronized (this) {
+                Entry e = entries.get(key);
+                if (e != null) {
+                    hits += 1;
+                    return e;
+                }
+                pending = inFlight.get(key);
+                if (pending == null) {
+                    inFlight.put(key, new CompletableFuture<>());
+                    break;
+                }
+            }
+            // null if generation failed, in which case try again
+            Entry e = pending.join();
+            if (e != null) {
+                synchronized (this) {
+                    hits += 1;
+                }
+                return e;
+            }
+        }
+        File f = dir == null ? null : join(dir, key.toString());
+        if (f == null || !f.exists()) {
+            synchronized (this) {
+                misses += 1;
+            }
+            return null;
+        }
+        Entry e;
+        try {
+            HashMap<?, ?> level = readObject(f, HashMap.class);
+            e = new Entry((TETile[][]) level.get("tiles"), (byte[]) level.get("gameMech"),
+                    (byte[]) level.get("random"));
+        } catch (RuntimeException excp) {
+            abandon(key);
+            throw excp;
+        }
+        synchronized (this) {
+            diskHits += 1;
+            add(key, e);
+            pending = inFlight.remove(key);
+        }
+        pending.complete(e);
+        return e;
+    }
+
+    /** Add an entry to memory, evicting the least recently used entries if needed. */
+    private void add(Key key, Entry e) {
+        Entry old = entries.put(key, e);
+        if (old != null) {
+            bytes -= old.footprint;
+        }
+        bytes += e.footprint;
+        Iterator<Map.Entry<Key, Entry>> it = entries.entrySet().iterator();
+        while (bytes > maxBytes && entries.size() > 1) {
+            Map.Entry<Key, Entry> eldest = it.next();
+            bytes -= eldest.getValue().footprint;
+            it.remove();
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package mazeRunner.Core;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Generates the next level on a background thread while the current level is played, so that
+ * reaching the exit does not stall the game. The next level is generated by a separate Engine
+ * from the seed that the next integer of the RNG of the current level will be, which is found
+ * from a copy of the RNG so that the RNG of the current level, which is saved with the game, is
+ * left untouched. The level is only used if the seed and the settings of the engine that affect
+ * generation are unchanged when player reaches the exit, so the result is always the same as
+ * generating the level at that point.
+ */
+class LevelPrefetcher {
+    /** Thread generating levels. */
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "level-prefetch");
+        t.setDaemon(true);
+        return t;
+    });
+    /** Level being generated or generated, or null. */
+    private Future<Engine> pending;
+    /** Seed of the pending level. */
+    private int pendingSeed;
+    /** Settings of the engine when the pending level was requested. */
+    private List<Object> pendingSettings;
+    /** Number of levels taken from the prefetcher. */
+    int hits;
+
+    /**
+     * Start generating the level that follows the current level of an engine, discarding any
+     * level generated before.
+     * @param current engine whose current level has been generated
+     */
+    void prefetch(Engine current) {
+        if (pending != null) {
+            pending.cancel(false);
+        }
+        Random copy = PersistenceUtils.deserialize(PersistenceUtils.serialize(current.random),
+                Random.class);
+        int seed = copy.nextInt();
+        Engine next = new Engine();
+        next.objectDensity = current.objectDensity;
+        next.monsterCount = current.monsterCount;
+        next.minExitSteps = current.minExitSteps;
+        next.verifyPolicy = current.verifyPolicy;
+        next.levelCache = current.levelCache;
+        next.level = current.level + 1;
+        String playerName = current.gameMech.player.name;
+        pendingSeed = seed;
+        pendingSettings = settingsOf(current);
+        pending = executor.submit(() -> {
+            next.runEngine(seed, playerName, GameMechanics.INIT_PLAYER_HEALTH);
+            return next;
+        });
+    }
+
+    /**
+     * Take the level generated for a seed, waiting for it to be generated if needed.
+     * @param seed seed of the next level
+     * @param current engine advancing to the next level
+     * @return engine holding the level, or null if no level was generated for the seed and the
+     * current settings of the engine, in which case the level must be generated as usual
+     */
+    Engine take(int seed, Engine current) {
+        Future<Engine> f = pending;
+        pending = null;
+        if (f == null || seed != pendingSeed || !settingsOf(current).equals(pendingSettings)) {
+            if (f != null) {
+                f.cancel(false);
+            }
+            return null;
+        }
+        try {
+            Engine next = f.get();
+            hits += 1;
+            return next;
+        } catch (ExecutionException excp) {
+            // generate the level again on the calling thread, which reports the failure
+            return null;
+        } catch (InterruptedException excp) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    /** Settings of an engine that affect level generation, including the name of player. */
+    private static List<Object> settingsOf(Engine engine) {
+        return Arrays.asList(engine.objectDensity, engine.monsterCount, engine.minExitSteps,
+                engine.verifyPolicy, engine.gameMech.player.name);
+    }
+}
@@ -0,0 +1,230 @@
+package mazeRunner.Core;
+
+import mazeRunner.TileEngine.TETile;
+
+import java.util.Arrays;
+
+import static mazeRunner.Core.Engine.WORLD_HEIGHT;
+import static mazeRunner.Core.Engine.WORLD_WIDTH;
+
+/**
+ * Finds the minimum number of turns player needs to reach the exit of a level, taking into
+ * account that every move and teleport costs 1 health, that player dies when health drops to 0,
+ * and that every bread eaten adds Bread.BREAD_BOOST health.
+ *
+ * The search is A* over states (tile, set of breads eaten). Health is not part of the state: it
+ * is the initial health minus the number of turns plus BREAD_BOOST for every bread eaten, so
+ * among paths reaching the same state the one with the fewest turns also has the most health, and
+ * only that one needs to be kept. The heuristic is the distance to the exit from
+ * DistanceFields, which counts teleporting as one step and never overestimates. The open set is
+ * a binary heap of longs and the best number of turns of each state is kept in an open-addressing
+ * hash table, so the search allocates nothing per state.
+ */
+class LevelSolver {
+    /** Maximum number of breads on a level that can be solved. */
+    static final int MAX_BREADS = 30;
+    /** Number of bits of a state holding the tile. */
+    private static final int CELL_BITS = 12;
+    /** Number of bits of a heap entry holding the state. */
+    private static final int STATE_BITS = CELL_BITS + MAX_BREADS;
+
+    /** Result of solving a level. */
+    static class Solution {
+        /** Minimum number of turns to reach the exit, or -1 if the exit cannot be reached
+         * alive. */
+        final int turns;
+        /** Number of breads eaten on the way, or -1 if the exit cannot be reached alive. */
+        final int breadsEaten;
+        /** Number of states expanded by the search. */
+        final int expanded;
+
+        Solution(int turns, int breadsEaten, int expanded) {
+            this.turns = turns;
+            this.breadsEaten = breadsEaten;
+            this.expanded = expanded;
+        }
+
+        /** Whether the exit can be reached alive. */
+        boolean solvable() {
+            return turns >= 0;
+        }
+    }
+
+    /** Bit of the bread on each tile in the set of breads eaten, or -1 if there is no bread. */
+    private final int[] breadBit = new int[WORLD_WIDTH * WORLD_HEIGHT];
+    /** Open set. Each entry is (f << STATE_BITS) | state. */
+    private long[] heap = new long[1024];
+    private int heapSize;
+    /** Keys (state + 1, 0 if empty) and best number of turns of states seen. */
+    private long[] keys = new long[1 << 14];
+    private int[] values = new int[1 << 14];
+    private int tableSize;
+
+    /**
+     * Solve the level held by a game mechanics from the current position and health of player.
+     * @param gm game mechanics of the level
+     * @return solution
+     * @throws IllegalArgumentException if there are more than MAX_BREADS breads
+     */
+    Solution solve(GameMechanics gm) {
+        if (gm.breads.size() > MAX_BREADS) {
+            throw new IllegalArgumentException("Cannot solve levels with more than "
+                    + MAX_BREADS + " breads");
+        }
+        TETile[][] tiles = gm.engine.tiles;
+        int[] toExit = gm.distanceFields().toExit;
+        Arrays.fill(breadBit, -1);
+        int bit = 0;
+        for (Bread b : gm.breads) {
+            breadBit[GridBfs.cellOf(b.pos)] = bit;
+            bit += 1;
+        }
+        heapSize = 0;
+        Arrays.fill(keys, 0);
+        tableSize = 0;
+
+        int health = gm.player.health;
+        int start = GridBfs.cellOf(gm.player.pos);
+        if (toExit[start] == GridBfs.UNREACHABLE) {
+            return new Solution(-1, -1, 0);
+        }
+        put(start, 0);
+        push(toExit[start], start);
+        int expanded = 0;
+        while (heapSize > 0) {
+            long entry = pop();
+            long state = entry & ((1L << STATE_BITS) - 1);
+            int cell = (int) (state & ((1 << CELL_BITS) - 1));
+            int mask = (int) (state >>> CELL_BITS);
+            int turns = get(state);
+            if ((entry >>> STATE_BITS) != turns + toExit[cell]) {
+                continue;
+            }
+            expanded += 1;
+            int x = cell % WORLD_WIDTH;
+            int y = cell / WORLD_WIDTH;
+            // health after the next action, before eating bread
+            int nextHealth = health - (turns + 1) + Bread.BREAD_BOOST * Integer.bitCount(mask);
+            if (nextHealth <= 0) {
+                continue;
+            }
+            int[][] neighbours = {{x + 1, y}, {x - 1, y}, {x, y + 1}, {x, y - 1}};
+            for (int[] n : neighbours) {
+                if (n[0] < 0 || n[0] >= WORLD_WIDTH || n[1] < 0 || n[1] >= WORLD_HEIGHT
+                        || !GridBfs.isWalkable(tiles[n[0]][n[1]])) {
+                    continue;
+                }
+                int w = GridBfs.cellOf(n[0], n[1]);
+                if (tiles[n[0]][n[1]].isSameType(Engine.patternExit)) {
+                    return new Solution(turns + 1, Integer.bitCount(mask), expanded);
+                }
+                int wMask = breadBit[w] >= 0 ? mask | (1 << breadBit[w]) : mask;
+                relax(w, wMask, turns + 1, toExit);
+            }
+            GameObject go = gm.objectAt(cell);
+            if (go instanceof PortalPair.Portal) {
+                PortalPair pp = ((PortalPair.Portal) go).getPair();
+                Position there = pp.getPortal() == go ? pp.getOtherPortal().pos : pp.getPortal().pos;
+                relax(GridBfs.cellOf(there), mask, turns + 1, toExit);
+            }
+        }
+        return new Solution(-1, -1, expanded);
+    }
+
+    /** Record a path reaching a state in the given number of turns if it is the best so far. */
+    private void relax(int cell, int mask, int turns, int[] toExit) {
+        if (toExit[cell] == GridBfs.UNREACHABLE) {
+            return;
+        }
+        long state = ((long) mask << CELL_BITS) | cell;
+        int best = get(state);
+        if (best >= 0 && best <= turns) {
+            return;
+        }
+        put(state, turns);
+        push(turns + toExit[cell], state);
+    }
+
+    /* Binary heap */
+
+    private void push(long f, long state) {
+        if (heapSize == heap.length) {
+            heap = Arrays.copyOf(heap, heap.length * 2);
+        }
+        long entry = (f << STATE_BITS) | state;
+        int i = heapSize;
+        heapSize += 1;
+        while (i > 0 && heap[(i - 1) / 2] > entry) {
+            heap[i] = heap[(i - 1) / 2];
+            i = (i - 1) / 2;
+        }
+        heap[i] = entry;
+    }
+
+    private long pop() {
+        long top = heap[0];
+        heapSize -= 1;
+        long last = heap[heapSize];
+        int i = 0;
+        while (2 * i + 1 < heapSize) {
+            int c = 2 * i + 1;
+            if (c + 1 < heapSize && heap[c + 1] < heap[c]) {
+                c += 1;
+            }
+            if (heap[c] >= last) {
+                break;
+            }
+            heap[i] = heap[c];
+            i = c;
+        }
+        heap[i] = last;
+        return top;
+    }
+
+    /* Open-addressing hash table from state to best number of turns */
+
+    /** Return the best number of turns of a state, or -1 if the state has not been seen. */
+    private int get(long state) {
+        int mask = keys.length - 1;
+        for (int i = hash(state) & mask; keys[i] != 0; i = (i + 1) & mask) {
+            if (keys[i] == state + 1) {
+                return values[i];
+            }
+        }
+        return -1;
+    }
+
+    private void put(long state, int turns) {
+        if (2 * (tableSize + 1) > keys.length) {
+            grow();
+        }
+        int mask = keys.length - 1;
+        int i = hash(state) & mask;
+        while (keys[i] != 0 && keys[i] != state + 1) {
+            i = (i + 1) & mask;
+        }
+        if (keys[i] == 0) {
+            keys[i] = state + 1;
+            tableSize += 1;
+        }
+        values[i] = turns;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new long[oldKeys.length * 2];
+        values = new int[oldValues.length * 2];
+        tableSize = 0;
+        for (int i = 0; i < oldKeys.length; i += 1) {
+            if (oldKeys[i] != 0) {
+                put(oldKeys[i] - 1, oldValues[i]);
+            }
+        }
+    }
+
+    private static int hash(long state) {
+        long h = state * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -0,0 +1,142 @@
+package mazeRunner.Core;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Checks that a generated level can be played, i.e. that player can reach the exit, every torch,
+ * every bread and every portal. A single breadth-first search from player, which teleports
+ * through portals and stops at the exit, finds all of them. Depending on the policy, a level that
+ * fails the check is reported, repaired or generated again from another seed. Unless the policy
+ * is OFF, a level whose rooms cannot be fully connected is always generated again.
+ */
+class LevelVerifier {
+    /** Maximum number of times a level is generated again from another seed. */
+    static final int MAX_RESEEDS = 16;
+
+    /** What to do with a level that fails the check. */
+    enum Policy {
+        /** Levels are not checked. Generation fails if rooms cannot be fully connected. */
+        OFF,
+        /** Result of the check is kept in Engine.levelReport. */
+        REPORT,
+        /** Unreachable game objects are moved to reachable floor tiles. The level is generated
+         * again if the exit is unreachable or rooms cannot be fully connected. */
+        REPAIR,
+        /** The level is generated again from another seed. */
+        RESEED
+    }
+
+    /** Result of checking a level. */
+    static class Report {
+        /** Number of steps from player to the exit, or GridBfs.UNREACHABLE. */
+        final int exitSteps;
+        /** Torches, breads and portals that player cannot reach. */
+        final List<GameObject> unreachable;
+
+        Report(int exitSteps, List<GameObject> unreachable) {
+            this.exitSteps = exitSteps;
+            this.unreachable = unreachable;
+        }
+
+        /** Whether the exit and all game objects are reachable. */
+        boolean ok() {
+            return exitSteps != GridBfs.UNREACHABLE && unreachable.isEmpty();
+        }
+
+        @Override
+        public String toString() {
+            return "exit steps: " + exitSteps + ", unreachable objects: " + unreachable.size();
+        }
+    }
+
+    private LevelVerifier() {
+    }
+
+    /**
+     * Check the level held by an engine.
+     * @param engine engine whose level has been generated
+     * @param bfs search whose dist is left holding the number of steps from player to each tile
+     * @return result of the check
+     */
+    static Report verify(Engine engine, GridBfs bfs) {
+        GameMechanics gm = engine.gameMech;
+        int[] dist = bfs.run(engine.tiles, gm.player.pos, gm);
+        List<GameObject> unreachable = new ArrayList<>();
+        for (Torch t : gm.torches) {
+            addIfUnreachable(dist, t, unreachable);
+        }
+        for (Bread b : gm.breads) {
+            addIfUnreachable(dist, b, unreachable);
+        }
+        for (PortalPair pp : gm.portalPairs) {
+            addIfUnreachable(dist, pp.getPortal(), unreachable);
+            addIfUnreachable(dist, pp.getOtherPortal(), unreachable);
+        }
+        return new Report(dist[GridBfs.cellOf(gm.exit)], unreachable);
+    }
+
+    private static void addIfUnreachable(int[] dist, GameObject go, List<GameObject> out) {
+        if (dist[GridBfs.cellOf(go.pos)] == GridBfs.UNREACHABLE) {
+            out.add(go);
+        }
+    }
+
+    /**
+     * Check the level held by an engine and apply a policy to it. The report is kept in
+     * Engine.levelReport unless the policy is OFF.
+     * @param engine engine whose level has been generated
+     * @param policy what to do if the level fails the check
+     * @return false if the level should be generated again from another seed
+     */
+    static boolean check(Engine engine, Policy policy) {
+        if (policy == Policy.OFF) {
+            return true;
+        }
+        GridBfs bfs = new GridBfs();
+        Report report = verify(engine, bfs);
+        engine.levelReport = report;
+        if (report.ok() || policy == Policy.REPORT) {
+            return true;
+        }
+        if (policy == Policy.RESEED || report.exitSteps == GridBfs.UNREACHABLE) {
+            return false;
+        }
+        repair(engine, bfs.dist, report.unreachable);
+        engine.levelReport = verify(engine, bfs);
+        return true;
+    }
+
+    /**
+     * Move unreachable game objects to random reachable floor tiles. A portal pair needs only one
+     * side to be moved, since the other side can then be reached by teleporting.
+     */
+    private static void repair(Engine engine, int[] dist, List<GameObject> unreachable) {
+        GameMechanics gm = engine.gameMech;
+        ArrayList<Position> reachableFloor = new ArrayList<>();
+        for (int x = 0; x < Engine.WORLD_WIDTH; x += 1) {
+            for (int y = 0; y < Engine.WORLD_HEIGHT; y += 1) {
+                if (dist[GridBfs.cellOf(x, y)] != GridBfs.UNREACHABLE
+                        && engine.getTilePattern(x, y).isSameType(Engine.patternFloor)) {
+                    reachableFloor.add(new Position(x, y));
+                }
+            }
+        }
+        for (GameObject go : unreachable) {
+            if (reachableFloor.isEmpty()) {
+                return;
+            }
+            if (go instanceof PortalPair.Portal) {
+                PortalPair pp = ((PortalPair.Portal) go).getPair();
+                if (go == pp.getOtherPortal() && unreachable.contains(pp.getPortal())) {
+                    continue;
+                }
+            }
+            int i = engine.random.nextInt(reachableFloor.size());
+            Position pos = reachableFloor.get(i);
+            reachableFloor.set(i, reachableFloor.get(reachableFloor.size() - 1));
+            reachableFloor.remove(reachableFloor.size() - 1);
+            gm.relocateObject(go, pos);
+        }
+    }
+}
@@ -6,6 +6,7 @@ package mazeRunner.Core;
  */
 public class Main {
     public static void main(String[] args) {
+        Metrics.startExportIfConfigured();
         if (args.length > 2) {
             System.out.println("Can only have two arguments - the flag and input string");
             System.exit(0);
@@ -0,0 +1,204 @@
+package mazeRunner.Core;
+
+import mazeRunner.TileEngine.TETile;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Exports tile arrays as text, one row per line from the top, without building the whole text in
+ * memory as TETile.toString() does. Characters of a row are written into a buffer that is
+ * allocated once and reused for every row and every export, and the buffer is handed to the
+ * destination whenever it is full, so memory use does not depend on the size of the map.
+ *
+ * With RLE encoding, a run of at least MIN_RUN equal tiles is written as the character of the
+ * tile followed by the length of the run in braces, e.g. "#{12}". No tile character is a brace,
+ * so the encoding is unambiguous; see decodeRle().
+ */
+class MapExporter {
+    /** How tiles are written. */
+    enum Encoding {
+        /** One character per tile. */
+        PLAIN,
+        /** Runs of equal tiles are written as a character and a count. */
+        RLE
+    }
+
+    /** Minimum length of a run written as a character and a count. */
+    static final int MIN_RUN = 4;
+    /** Size of the buffers, in characters and bytes. */
+    static final int BUFFER_SIZE = 8192;
+
+    private final Encoding encoding;
+    /** Characters waiting to be written. */
+    private final CharBuffer chars = CharBuffer.allocate(BUFFER_SIZE);
+    /** Bytes waiting to be written to a channel. */
+    private final ByteBuffer bytes = ByteBuffer.allocate(BUFFER_SIZE);
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+    /** Destination of the current export, exactly one of which is set. */
+    private Writer writer;
+    private WritableByteChannel channel;
+
+    /** Constructor of the class. */
+    MapExporter(Encoding encoding) {
+        this.encoding = encoding;
+    }
+
+    /**
+     * Write tiles to a writer. The writer is flushed but not closed.
+     * @param tiles tile array to export
+     * @param out destination
+     */
+    void export(TETile[][] tiles, Writer out) throws IOException {
+        writer = out;
+        channel = null;
+        try {
+            writeTiles(tiles);
+            out.flush();
+        } finally {
+            writer = null;
+        }
+    }
+
+    /**
+     * Write tiles to a channel as UTF-8. The channel is not closed.
+     * @param tiles tile array to export
+     * @param out destination
+     */
+    void export(TETile[][] tiles, WritableByteChannel out) throws IOException {
+        writer = null;
+        channel = out;
+        encoder.reset();
+        try {
+            writeTiles(tiles);
+            chars.flip();
+            encode(true);
+            while (encoder.flush(bytes) == CoderResult.OVERFLOW) {
+                drainBytes();
+            }
+            drainBytes();
+            chars.clear();
+        } finally {
+            channel = null;
+        }
+    }
+
+    private void writeTiles(TETile[][] tiles) throws IOException {
+        chars.clear();
+        int width = tiles.length;
+        for (int y = tiles[0].length - 1; y >= 0; y -= 1) {
+            int x = 0;
+            while (x < width) {
+                char c = tiles[x][y].character();
+                int run = 1;
+                if (encoding == Encoding.RLE) {
+                    while (x + run < width && tiles[x + run][y].character() == c) {
+                        run += 1;
+                    }
+                }
+                if (run >= MIN_RUN) {
+                    put(c);
+                    put('{');
+                    String count = Integer.toString(run);
+                    for (int i = 0; i < count.length(); i += 1) {
+                        put(count.charAt(i));
+                    }
+                    put('}');
+                } else {
+                    for (int i = 0; i < run; i += 1) {
+                        put(c);
+                    }
+                }
+                x += run;
+            }
+            put('\n');
+        }
+        if (writer != null) {
+            drainChars();
+        }
+    }
+
+    /** Add a character to the buffer, handing the buffer to the destination if it is full. */
+    private void put(char c) throws IOException {
+        if (!chars.hasRemaining()) {
+            if (writer != null) {
+                drainChars();
+            } else {
+                chars.flip();
+                encode(false);
+            }
+        }
+        chars.put(c);
+    }
+
+    /** Write buffered characters to the writer. */
+    private void drainChars() throws IOException {
+        writer.write(chars.array(), 0, chars.position());
+        chars.clear();
+    }
+
+    /** Encode buffered characters, writing bytes to the channel whenever they fill up. */
+    private void encode(boolean endOfInput) throws IOException {
+        while (encoder.encode(chars, bytes, endOfInput) == CoderResult.OVERFLOW) {
+            drainBytes();
+        }
+        chars.compact();
+    }
+
+    /** Write buffered bytes to the channel. */
+    private void drainBytes() throws IOException {
+        bytes.flip();
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+        bytes.clear();
+    }
+
+    /**
+     * Expand a line written with RLE encoding to one character per tile.
+     * @param line line without the line terminator
+     * @return characters of the row
+     */
+    static String decodeRle(String line) {
+        StringBuilder sb = new StringBuilder();
+        int i = 0;
+        while (i < line.length()) {
+            char c = line.charAt(i);
+            if (i + 1 < line.length() && line.charAt(i + 1) == '{') {
+                int end = line.indexOf('}', i + 2);
+                int run = Integer.parseInt(line.substring(i + 2, end));
+                for (int k = 0; k < run; k += 1) {
+                    sb.append(c);
+                }
+                i = end + 1;
+            } else {
+                sb.append(c);
+                i += 1;
+            }
+        }
+        return sb.toString();
+    }
+
+    /** Generate a level and export it, e.g. "MapExporter 42 map.txt rle". */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2 || args.length > 3) {
+            System.out.println("Usage: MapExporter SEED FILE [rle]");
+            return;
+        }
+        Encoding encoding = args.length == 3 && args[2].equalsIgnoreCase("rle")
+                ? Encoding.RLE : Encoding.PLAIN;
+        GameSession session = new GameSession(Integer.parseInt(args[0]), "export");
+        try (FileChannel out = FileChannel.open(Paths.get(args[1]), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            new MapExporter(encoding).export(session.tiles(), out);
+        }
+    }
+}
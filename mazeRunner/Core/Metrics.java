@@ -0,0 +1,192 @@
+package mazeRunner.Core;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters and timers of world generation and gameplay. Metrics are enabled by the system
+ * property "mazeRunner.metrics"; when disabled, ENABLED is a constant false and every call
+ * below folds away. Timers use the monotonic clock (System.nanoTime()).
+ *
+ * Metrics can be read in process by snapshot(), or exported as one JSON object per line every
+ * "mazeRunner.metrics.periodMs" milliseconds (default 10000) to the file named by the system
+ * property "mazeRunner.metrics.out". See startExportIfConfigured().
+ */
+final class Metrics {
+    /** Whether metrics are collected. */
+    static final boolean ENABLED = Boolean.getBoolean("mazeRunner.metrics");
+
+    /** Things that are counted. */
+    enum Counter {
+        ROOMS_BUILT, CONNECTION_ATTEMPTS, FAILED_CONNECTIONS, DIJKSTRA_VERTICES_EXPANDED,
+        FOV_CELLS_VISITED, MONSTER_MOVES, MONSTERS_DEFERRED
+    }
+
+    /** Things that are timed. */
+    enum Timer {
+        LEVEL, BUILD_ROOMS, CONNECT_ROOMS, PLACE_OBJECTS, TURN, MOB_TICK, RENDER
+    }
+
+    private static final LongAdder[] COUNTS = newAdders(Counter.values().length);
+    private static final LongAdder[] TIMER_COUNTS = newAdders(Timer.values().length);
+    private static final LongAdder[] TIMER_TOTAL_NANOS = newAdders(Timer.values().length);
+    private static final LongAccumulator[] TIMER_MAX_NANOS = new LongAccumulator[Timer.values().length];
+    static {
+        for (int i = 0; i < TIMER_MAX_NANOS.length; i += 1) {
+            TIMER_MAX_NANOS[i] = new LongAccumulator(Math::max, 0);
+        }
+    }
+
+    private Metrics() {
+    }
+
+    private static LongAdder[] newAdders(int n) {
+        LongAdder[] out = new LongAdder[n];
+        for (int i = 0; i < n; i += 1) {
+            out[i] = new LongAdder();
+        }
+        return out;
+    }
+
+    /** Add 1 to a counter. */
+    static void increment(Counter c) {
+        if (ENABLED) {
+            COUNTS[c.ordinal()].increment();
+        }
+    }
+
+    /** Add n to a counter. */
+    static void add(Counter c, long n) {
+        if (ENABLED) {
+            COUNTS[c.ordinal()].add(n);
+        }
+    }
+
+    /**
+     * Start timing.
+     * @return start time to be passed to stop(), or 0 if metrics are disabled
+     */
+    static long start() {
+        return ENABLED ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Stop timing and record the elapsed time.
+     * @param t timer
+     * @param start start time returned by start()
+     */
+    static void stop(Timer t, long start) {
+        if (ENABLED) {
+            long elapsed = System.nanoTime() - start;
+            int i = t.ordinal();
+            TIMER_COUNTS[i].increment();
+            TIMER_TOTAL_NANOS[i].add(elapsed);
+            TIMER_MAX_NANOS[i].accumulate(elapsed);
+        }
+    }
+
+    /** Point-in-time copy of all metrics. */
+    static class Snapshot {
+        /** Wall-clock time at which the snapshot was taken, in milliseconds since epoch. */
+        final long timeMillis;
+        final long[] counts;
+        final long[] timerCounts;
+        final long[] timerTotalNanos;
+        final long[] timerMaxNanos;
+
+        private Snapshot() {
+            timeMillis = System.currentTimeMillis();
+            counts = new long[COUNTS.length];
+            for (int i = 0; i < counts.length; i += 1) {
+                counts[i] = COUNTS[i].sum();
+            }
+            int n = Timer.values().length;
+            timerCounts = new long[n];
+            timerTotalNanos = new long[n];
+            timerMaxNanos = new long[n];
+            for (int i = 0; i < n; i += 1) {
+                timerCounts[i] = TIMER_COUNTS[i].sum();
+                timerTotalNanos[i] = TIMER_TOTAL_NANOS[i].sum();
+                timerMaxNanos[i] = TIMER_MAX_NANOS[i].get();
+            }
+        }
+
+        long count(Counter c) {
+            return counts[c.ordinal()];
+        }
+
+        long timerCount(Timer t) {
+            return timerCounts[t.ordinal()];
+        }
+
+        long timerTotalNanos(Timer t) {
+            return timerTotalNanos[t.ordinal()];
+        }
+
+        long timerMaxNanos(Timer t) {
+            return timerMaxNanos[t.ordinal()];
+        }
+
+        /** Return the snapshot as a single-line JSON object. */
+        String toJson() {
+            StringBuilder sb = new StringBuilder("{\"time\":").append(timeMillis);
+            for (Counter c : Counter.values()) {
+                sb.append(",\"").append(c.name().toLowerCase()).append("\":").append(count(c));
+            }
+            for (Timer t : Timer.values()) {
+                String name = t.name().toLowerCase();
+                sb.append(",\"").append(name).append("\":{\"count\":").append(timerCount(t))
+                        .append(",\"totalNanos\":").append(timerTotalNanos(t))
+                        .append(",\"maxNanos\":").append(timerMaxNanos(t)).append('}');
+            }
+            return sb.append('}').toString();
+        }
+    }
+
+    /** Take a snapshot of all metrics. */
+    static Snapshot snapshot() {
+        return new Snapshot();
+    }
+
+    /**
+     * Append a snapshot to a file as a JSON line every periodMs milliseconds, and once more when
+     * the JVM shuts down.
+     * @param out file to append to
+     * @param periodMs period of export in milliseconds
+     */
+    static void exportPeriodically(File out, long periodMs) {
+        ScheduledExecutorService exporter = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "metrics-exporter");
+            t.setDaemon(true);
+            return t;
+        });
+        exporter.scheduleAtFixedRate(() -> appendSnapshot(out), periodMs, periodMs,
+                TimeUnit.MILLISECONDS);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> appendSnapshot(out)));
+    }
+
+    /** Start exporting if metrics are enabled and "mazeRunner.metrics.out" is set. */
+    static void startExportIfConfigured() {
+        String out = System.getProperty("mazeRunner.metrics.out");
+        if (ENABLED && out != null) {
+            exportPeriodically(new File(out),
+                    Long.getLong("mazeRunner.metrics.periodMs", 10000));
+        }
+    }
+
+    /** Append a snapshot to a file as a JSON line. */
+    private static synchronized void appendSnapshot(File out) {
+        try (Writer w = new OutputStreamWriter(new FileOutputStream(out, true),
+                StandardCharsets.UTF_8)) {
+            w.write(snapshot().toJson());
+            w.write('\n');
+        } catch (IOException excp) {
+            throw new IllegalArgumentException(excp.getMessage());
+        }
+    }
+}
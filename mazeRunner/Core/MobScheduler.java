@@ -0,0 +1,117 @@
+package mazeRunner.Core;
+
+import java.util.List;
+
+import static mazeRunner.Core.Engine.WORLD_HEIGHT;
+import static mazeRunner.Core.Engine.WORLD_WIDTH;
+
+/**
+ * Advances monsters after every turn of player. All monsters path toward player along one shared
+ * distance field, a breadth-first search from player that is only run again when player has moved,
+ * so a tick costs a constant amount of work per monster however many monsters there are.
+ *
+ * A tick may be given a time budget. Monsters take their turns in round-robin order, and monsters
+ * that have not moved when the budget runs out move first in the next tick, so turn latency stays
+ * bounded and no monster is starved. With a budget, which monsters move depends on the speed of
+ * the machine; a budget of 0 moves every monster every tick, which keeps games deterministic, e.g.
+ * for replays. Engines only use a budget in real-time games.
+ *
+ * The field from player is a GridBfs of its own rather than a field of DistanceFields. Fields of
+ * DistanceFields lead to targets that stay put for a level and are computed once per level, and
+ * they teleport through portals, which monsters cannot do. This one has a moving source, so it is
+ * searched again whenever player moves, and does not teleport.
+ */
+class MobScheduler {
+    /** Time budget of a tick in real-time games. */
+    static final long DEFAULT_BUDGET_NANOS = 2_000_000;
+
+    /** Number of steps from player to each tile, allocated when there are first monsters. */
+    private GridBfs toPlayer;
+    /** Game mechanics for which toPlayer was computed. */
+    private GameMechanics fieldLevel;
+    /** Position of player for which toPlayer was computed. */
+    private Position fieldSource;
+    /** Index of the monster that takes its turn first in the next tick. */
+    private int next;
+    /** Number of monsters that did not move in the last tick because the budget ran out. */
+    int deferred;
+
+    /**
+     * Let monsters take their turns.
+     * @param gm game mechanics of the level
+     * @param budgetNanos time budget of the tick, or 0 for no budget
+     * @return -1 if player's health falls to <=0, 0 otherwise
+     */
+    int tick(GameMechanics gm, long budgetNanos) {
+        List<Monster> monsters = gm.monsters;
+        int n = monsters.size();
+        deferred = 0;
+        if (n == 0) {
+            return 0;
+        }
+        long start = System.nanoTime();
+        long metricsStart = Metrics.start();
+        if (toPlayer == null) {
+            toPlayer = new GridBfs();
+        }
+        if (gm != fieldLevel || !gm.player.pos.equals(fieldSource)) {
+            toPlayer.run(gm.engine.tiles, gm.player.pos);
+            fieldLevel = gm;
+            fieldSource = gm.player.pos;
+        }
+        if (next >= n) {
+            next = 0;
+        }
+        int outcome = 0;
+        for (int i = 0; i < n; i += 1) {
+            int m = (next + i) % n;
+            if (takeTurn(gm, monsters.get(m)) == -1) {
+                outcome = -1;
+                break;
+            }
+            if (budgetNanos > 0 && System.nanoTime() - start >= budgetNanos && i + 1 < n) {
+                deferred = n - i - 1;
+                next = (m + 1) % n;
+                break;
+            }
+        }
+        Metrics.add(Metrics.Counter.MONSTERS_DEFERRED, deferred);
+        Metrics.stop(Metrics.Timer.MOB_TICK, metricsStart);
+        return outcome;
+    }
+
+    /**
+     * Move a monster one step closer to player, or attack player if player is next to it. A
+     * monster stays in place if player cannot be reached or the way is blocked.
+     * @return -1 if player's health falls to <=0, 0 otherwise
+     */
+    private int takeTurn(GameMechanics gm, Monster monster) {
+        int x = monster.pos.getX();
+        int y = monster.pos.getY();
+        int here = toPlayer.dist[GridBfs.cellOf(x, y)];
+        if (here == GridBfs.UNREACHABLE) {
+            return 0;
+        }
+        int[][] steps = {{1, 0}, {-1, 0}, {0, 1}, {0, -1}};
+        for (int[] s : steps) {
+            int nX = x + s[0];
+            int nY = y + s[1];
+            if (nX < 0 || nX >= WORLD_WIDTH || nY < 0 || nY >= WORLD_HEIGHT) {
+                continue;
+            }
+            int d = toPlayer.dist[GridBfs.cellOf(nX, nY)];
+            if (d == GridBfs.UNREACHABLE || d >= here) {
+                continue;
+            }
+            if (d == 0) {
+                return gm.player.changeHealth(-Monster.MONSTER_DAMAGE) ? 0 : -1;
+            }
+            if (Monster.canStepOn(gm.engine.getTilePattern(nX, nY))) {
+                gm.moveGameObject(monster, s[0], s[1]);
+                Metrics.increment(Metrics.Counter.MONSTER_MOVES);
+                return 0;
+            }
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,26 @@
+package mazeRunner.Core;
+
+import mazeRunner.TileEngine.TETile;
+
+/**
+ * Sub-class of GameObject. Monsters chase player and deal damage when they reach player. They are
+ * moved by MobScheduler after every turn of player. Monsters can walk over torches, breads and
+ * portals, which are covered until the monster moves on.
+ */
+public class Monster extends GameObject {
+    private static final long serialVersionUID = 2716540398185937212L;
+    /** Amount of health player loses when a monster reaches player. */
+    static final int MONSTER_DAMAGE = 5;
+
+    /** Constructor of the class. */
+    Monster(Position pos, TETile avatar) {
+        super(pos, avatar);
+        this.lastTilePattern = Engine.patternFloor;
+    }
+
+    /** Whether a monster can step on a tile, i.e. floor, torch, bread or portal. */
+    static boolean canStepOn(TETile t) {
+        return t.isSameType(Engine.patternFloor) || t.isSameType(Engine.patternTorch)
+                || t.isSameType(Engine.patternBread) || t.isSameType(Engine.patternPortal);
+    }
+}
@@ -81,7 +81,7 @@ class PersistenceUtils {
             return result;
         } catch (IOException | ClassCastException
                 | ClassNotFoundException excp) {
-            System.out.println(excp);
+            DebugLog.log(DebugLog.Level.WARN, excp.toString());
             throw new IllegalArgumentException(excp.getMessage());
         }
     }
@@ -148,5 +148,15 @@ class PersistenceUtils {
             throw new IllegalArgumentException("Internal error during serialization.");
         }
     }
+
+    /** Return an object of type T read from BYTES, casting it to EXPECTEDCLASS.
+     *  Throws IllegalArgumentException in case of problems. */
+    static <T extends Serializable> T deserialize(byte[] bytes, Class<T> expectedClass) {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            return expectedClass.cast(in.readObject());
+        } catch (IOException | ClassCastException | ClassNotFoundException excp) {
+            throw new IllegalArgumentException(excp.getMessage());
+        }
+    }
 }
 
@@ -7,6 +7,7 @@ import mazeRunner.TileEngine.Tileset;
  * Sub-class of GameObject.
  */
 public class Player extends GameObject {
+    private static final long serialVersionUID = 6419008063715539218L;
     /** Health of player. Game ends when health <= 0  */
     int health;
     /** Name of player */
@@ -35,11 +36,12 @@ public class Player extends GameObject {
         if (dX == 0 && dY == 0) {
             throw new IllegalArgumentException();
         }
-        checkAvatarOrientation(dX);
+        checkAvatarOrientation(engine, dX);
         Position newPos = new Position(pos.getX() + dX, pos.getY() + dY);
         TETile _lastTilePattern = engine.getTilePattern(newPos);
 
-        if (_lastTilePattern.isSameType(Engine.patternWall)) { return 0; }
+        if (_lastTilePattern.isSameType(Engine.patternWall)
+                || _lastTilePattern.isSameType(Engine.patternMonster)) { return 0; }
         if (!changeHealth(-1)) { return -1; }
         if (_lastTilePattern.isSameType(Engine.patternExit)) { return 1; }
 
@@ -50,7 +52,7 @@ public class Player extends GameObject {
             gm.portalPreviewPos = gm.findPortalPairFmPos(newPos).getOtherPortalPos(newPos);
         } else if (_lastTilePattern.isSameType(Engine.patternBread)) {
             changeHealth(Bread.BREAD_BOOST);
-            gm.breads.remove(gm.findBreadFmPos(newPos));
+            gm.removeBread(newPos);
             _lastTilePattern = Engine.patternFloor;
         } else if (_lastTilePattern.isSameType(Engine.patternTorch)) {
             gm.lightsOn = true;
@@ -71,22 +73,24 @@ public class Player extends GameObject {
 
     /**
      * Flips horizontal orientation of player's avatar when appropriate.
+     * @param engine game engine
      * @param dX displacement of player along x-axis
      */
-    void checkAvatarOrientation(int dX) {
+    void checkAvatarOrientation(Engine engine, int dX) {
         if (dX == -1) {
-            changeAvatar(Tileset.AVATAR_LEFT);
+            changeAvatar(engine, Tileset.AVATAR_LEFT);
         } else if (dX == 1) {
-            changeAvatar(Tileset.AVATAR_RIGHT);
+            changeAvatar(engine, Tileset.AVATAR_RIGHT);
         }
     }
 
     /**
      * Changes avatar of game object.
+     * @param engine game engine
      * @param t tile of the new avatar
      */
-    void changeAvatar(TETile t) {
-        Engine.patternPlayerAvatar = t;
+    void changeAvatar(Engine engine, TETile t) {
+        engine.patternPlayerAvatar = t;
         avatar = t;
     }
 
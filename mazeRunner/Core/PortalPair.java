@@ -56,12 +56,18 @@ public class PortalPair implements Serializable {
 
     /** Side of a portal pair. */
     class Portal extends GameObject implements Serializable {
+        private static final long serialVersionUID = -3048411094116658828L;
 
         /** Constructor of the nested class. */
         Portal(Position pos, TETile avatar) {
             super(pos, avatar);
         }
 
+        /** Get the pair that this portal belongs to. */
+        PortalPair getPair() {
+            return PortalPair.this;
+        }
+
         /** Portal cannot move. RuntimeException is thrown if this method is called. */
         int move(GameMechanics gm, Engine engine, int dX, int dY) {
             throw new RuntimeException("Portal cannot be moved");
@@ -0,0 +1,141 @@
+package mazeRunner.Core;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Real-time game loop. A simulation thread advances the game at a fixed rate of TICK_HZ ticks per
+ * second whether or not keys are pressed: in each tick it takes the actions bound to the keys
+ * submitted since the last tick, lets monsters take their turns every MOB_TICK_INTERVAL ticks and
+ * publishes a WorldSnapshot, to a RenderThread if one is set. Keys are submitted from any thread,
+ * and snapshots are read from any thread, so rendering is separate from simulation and frames can
+ * be drawn at their own rate, interpolating between ticks.
+ *
+ * Tick times are recorded in tickTimes. If the simulation falls more than MAX_CATCH_UP_TICKS
+ * behind, e.g. while a new level is generated, the missed ticks are dropped and counted in
+ * droppedTicks instead of being run back to back.
+ */
+class RealTimeLoop {
+    /** Number of ticks per second. */
+    static final int TICK_HZ = 60;
+    /** Duration of a tick. */
+    static final long TICK_NANOS = 1_000_000_000L / TICK_HZ;
+    /** Number of ticks between turns of monsters. */
+    static final int MOB_TICK_INTERVAL = 15;
+    /** Maximum number of ticks run back to back to catch up. */
+    static final int MAX_CATCH_UP_TICKS = 5;
+
+    /** Session advanced by the loop. Only accessed by the simulation thread once started. */
+    private final GameSession session;
+    /** Keys submitted and not yet handled. */
+    private final Queue<Character> keys = new ConcurrentLinkedQueue<>();
+    /** Latest snapshot. */
+    private final AtomicReference<WorldSnapshot> latest = new AtomicReference<>();
+    /** Durations of ticks. */
+    final LatencyHistogram tickTimes = new LatencyHistogram();
+    /** Number of ticks dropped because the simulation fell behind. */
+    volatile long droppedTicks;
+    /** Thread that draws the snapshots, or null. */
+    private volatile RenderThread renderer;
+    /** Number of ticks run. */
+    private long tick;
+    private volatile boolean running;
+    private volatile boolean over;
+    private Thread thread;
+
+    /**
+     * Constructor of the class. Publishes a snapshot of the current game state.
+     * @param session session to advance, whose monsters must not follow the turns of player
+     */
+    RealTimeLoop(GameSession session) {
+        this.session = session;
+        session.monstersOnTurns = false;
+        latest.set(WorldSnapshot.take(session.engine(), 0, null));
+    }
+
+    /** Submit a key to be handled in the next tick. */
+    void submit(char key) {
+        keys.add(key);
+    }
+
+    /** Publish every snapshot to a render thread, starting with the latest one. */
+    void setRenderer(RenderThread renderer) {
+        this.renderer = renderer;
+        renderer.publish(latest.get());
+    }
+
+    /** Latest snapshot of the game state. */
+    WorldSnapshot latest() {
+        return latest.get();
+    }
+
+    /** Whether player has died. */
+    boolean isOver() {
+        return over;
+    }
+
+    /** Start the simulation thread. */
+    void start() {
+        running = true;
+        thread = new Thread(this::run, "mazeRunner-simulation");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /** Stop the simulation thread and wait for it to finish its tick. */
+    void stop() {
+        running = false;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void run() {
+        long next = System.nanoTime();
+        while (running && !over) {
+            long now = System.nanoTime();
+            if (now < next) {
+                LockSupport.parkNanos(next - now);
+                continue;
+            }
+            tick();
+            next += TICK_NANOS;
+            long behind = (System.nanoTime() - next) / TICK_NANOS;
+            if (behind > MAX_CATCH_UP_TICKS) {
+                droppedTicks += behind;
+                next += behind * TICK_NANOS;
+            }
+        }
+    }
+
+    /**
+     * Run one tick: take the actions bound to the keys submitted, let monsters take their turns
+     * if it is their tick and publish a snapshot. Called by the simulation thread, or directly
+     * when the thread is not started, e.g. in tests.
+     */
+    void tick() {
+        long start = System.nanoTime();
+        tick += 1;
+        Character key;
+        while (!over && (key = keys.poll()) != null) {
+            over = session.step(key) == GameSession.Outcome.DIED;
+        }
+        if (!over && tick % MOB_TICK_INTERVAL == 0) {
+            over = session.tickMonsters() == GameSession.Outcome.DIED;
+        }
+        WorldSnapshot snapshot = WorldSnapshot.take(session.engine(), tick, latest.get());
+        latest.set(snapshot);
+        RenderThread r = renderer;
+        if (r != null) {
+            r.publish(snapshot);
+        }
+        tickTimes.record(System.nanoTime() - start);
+    }
+}
@@ -0,0 +1,60 @@
+package mazeRunner.Core;
+
+import mazeRunner.Input.InputSource;
+
+/**
+ * InputSource that records every key read from another InputSource to a replay log, together
+ * with the turn of the game session at which the key is read. A checkpoint with a hash of the
+ * game state is written every CHECKPOINT_INTERVAL turns, and when the recording is closed.
+ */
+public class RecordingInputSource implements InputSource {
+    /** Default number of turns between checkpoints. */
+    static final int CHECKPOINT_INTERVAL = 64;
+
+    /** Source of keys. */
+    private final InputSource delegate;
+    /** Session that consumes the keys. */
+    private final GameSession session;
+    /** Log to record to. */
+    private final ReplayLog.Writer log;
+    /** Number of turns between checkpoints. */
+    private final int checkpointInterval;
+    /** Turn at which the next checkpoint is written. */
+    private int nextCheckpoint;
+
+    /**
+     * Constructor of the class.
+     * @param delegate source of keys
+     * @param session session that consumes the keys
+     * @param log log to record to
+     * @param checkpointInterval number of turns between checkpoints
+     */
+    RecordingInputSource(InputSource delegate, GameSession session, ReplayLog.Writer log,
+                         int checkpointInterval) {
+        this.delegate = delegate;
+        this.session = session;
+        this.log = log;
+        this.checkpointInterval = checkpointInterval;
+        this.nextCheckpoint = session.turn() + checkpointInterval;
+    }
+
+    public char getNextKey() {
+        if (session.turn() >= nextCheckpoint) {
+            log.checkpoint(session.turn(), session.stateHash());
+            nextCheckpoint = session.turn() + checkpointInterval;
+        }
+        char c = delegate.getNextKey();
+        log.key(session.turn(), c);
+        return c;
+    }
+
+    public boolean possibleNextInput() {
+        return delegate.possibleNextInput();
+    }
+
+    /** Write a final checkpoint and close the log. */
+    void close() {
+        log.checkpoint(session.turn(), session.stateHash());
+        log.close();
+    }
+}
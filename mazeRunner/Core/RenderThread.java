@@ -0,0 +1,174 @@
+package mazeRunner.Core;
+
+import edu.princeton.cs.introcs.StdDraw;
+import mazeRunner.TileEngine.TETile;
+import mazeRunner.TileEngine.Tileset;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+import static mazeRunner.Core.Engine.WORLD_XOFFSET;
+import static mazeRunner.Core.Engine.WORLD_YOFFSET;
+
+/**
+ * Thread that draws the game state and HUD from WorldSnapshots, so that drawing never holds up
+ * game logic or input handling. The game logic publishes a snapshot after every change; the
+ * render thread always draws the latest one. Snapshots are immutable and handed over through an
+ * AtomicReference, so neither thread ever waits for the other: a publish never blocks, and
+ * snapshots published while a frame is being drawn are skipped except for the latest.
+ *
+ * The render thread also reads the tile under the cursor for the HUD. A frame is drawn when a new
+ * snapshot is published, when the tile under the cursor changes, or, if frames are interpolated,
+ * while player is sliding between tiles. Otherwise the thread checks the cursor FRAME_HZ times per
+ * second. While a render thread runs, no other thread may draw.
+ *
+ * Frames are drawn to a Canvas, which is the game window unless a test gives another one.
+ */
+class RenderThread {
+    /** Maximum number of frames drawn per second. */
+    static final int FRAME_HZ = 60;
+    private static final long FRAME_NANOS = 1_000_000_000L / FRAME_HZ;
+
+    /** Where frames are drawn. */
+    interface Canvas {
+        /** Description of the visible tile under the cursor, or player's name if it is player. */
+        String describeTileAtCursor(WorldSnapshot snapshot);
+
+        /**
+         * Draw the game state and HUD of a snapshot.
+         * @param snapshot snapshot of the game state
+         * @param alpha fraction of a tick elapsed since the snapshot was taken, between 0 and 1
+         * @param description description of the tile under the cursor
+         */
+        void draw(WorldSnapshot snapshot, double alpha, String description);
+    }
+
+    /** Canvas of the game window, drawn with StdDraw. */
+    static final Canvas WINDOW = new Canvas() {
+        @Override
+        public String describeTileAtCursor(WorldSnapshot snapshot) {
+            int x = (int) StdDraw.mouseX() - WORLD_XOFFSET;
+            int y = (int) StdDraw.mouseY() - WORLD_YOFFSET;
+            TETile[][] tiles = snapshot.tiles;
+            if (x < 0 || x >= tiles.length || y < 0 || y >= tiles[0].length) {
+                return Tileset.NOTHING.description();
+            }
+            if (x == snapshot.playerPos.getX() && y == snapshot.playerPos.getY()) {
+                return snapshot.playerName;
+            }
+            return tiles[x][y].description();
+        }
+
+        @Override
+        public void draw(WorldSnapshot snapshot, double alpha, String description) {
+            DrawingUtils.drawSnapshot(snapshot, alpha);
+            DrawingUtils.drawHud(snapshot.health, description, Integer.toString(snapshot.level));
+        }
+    };
+
+    /** Latest snapshot published. */
+    private final AtomicReference<WorldSnapshot> latest = new AtomicReference<>();
+    /** Whether player is drawn between the tiles of consecutive snapshots. */
+    private final boolean interpolate;
+    private final Canvas canvas;
+    /** Durations of frames drawn. */
+    final LatencyHistogram frameTimes = new LatencyHistogram();
+    /** Number of snapshots published, and number of them that have been drawn. */
+    private final AtomicLong published = new AtomicLong();
+    private final AtomicLong snapshotsDrawn = new AtomicLong();
+    private volatile boolean running;
+    private volatile Thread thread;
+
+    /**
+     * Constructor of the class.
+     * @param interpolate whether player is drawn between the tiles of consecutive snapshots,
+     *                    which is only useful if snapshots are published once per tick
+     */
+    RenderThread(boolean interpolate) {
+        this(interpolate, WINDOW);
+    }
+
+    /**
+     * Constructor of the class.
+     * @param interpolate whether player is drawn between the tiles of consecutive snapshots
+     * @param canvas where frames are drawn
+     */
+    RenderThread(boolean interpolate, Canvas canvas) {
+        this.interpolate = interpolate;
+        this.canvas = canvas;
+    }
+
+    /** Publish a snapshot to be drawn. Never blocks. */
+    void publish(WorldSnapshot snapshot) {
+        published.incrementAndGet();
+        latest.set(snapshot);
+        Thread t = thread;
+        if (t != null) {
+            LockSupport.unpark(t);
+        }
+    }
+
+    /** Start the render thread. */
+    void start() {
+        running = true;
+        thread = new Thread(this::run, "mazeRunner-render");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /** Number of snapshots published that have not been drawn, i.e. that were replaced by a later
+     * snapshot before the render thread got to them, plus the latest one if it has not been drawn
+     * yet. */
+    long dropped() {
+        return published.get() - snapshotsDrawn.get();
+    }
+
+    /** Stop the render thread and wait for it to finish its frame. */
+    void stop() {
+        running = false;
+        Thread t = thread;
+        if (t != null) {
+            LockSupport.unpark(t);
+            try {
+                t.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void run() {
+        WorldSnapshot drawn = null;
+        String drawnDescription = null;
+        double drawnAlpha = 1;
+        while (running) {
+            long start = System.nanoTime();
+            WorldSnapshot snapshot = latest.get();
+            if (snapshot == null) {
+                LockSupport.parkNanos(FRAME_NANOS);
+                continue;
+            }
+            double alpha = interpolate ? Math.min(1.0,
+                    (double) (start - snapshot.takenNanos) / RealTimeLoop.TICK_NANOS) : 1;
+            String description = canvas.describeTileAtCursor(snapshot);
+            if (snapshot == drawn && description.equals(drawnDescription)
+                    && alpha == drawnAlpha) {
+                LockSupport.parkNanos(FRAME_NANOS);
+                continue;
+            }
+            canvas.draw(snapshot, alpha, description);
+            if (snapshot != drawn) {
+                snapshotsDrawn.incrementAndGet();
+            }
+            drawn = snapshot;
+            drawnDescription = description;
+            drawnAlpha = alpha;
+            long elapsed = System.nanoTime() - start;
+            frameTimes.record(elapsed);
+            if (elapsed < FRAME_NANOS) {
+                LockSupport.parkNanos(FRAME_NANOS - elapsed);
+            }
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package mazeRunner.Core;
+
+import mazeRunner.Input.InputSource;
+import mazeRunner.Input.StringInputDevice;
+
+import java.io.*;
+
+/**
+ * Records game sessions to replay logs and replays them through a headless game session as fast
+ * as possible, checking the hash of the game state at every checkpoint. A replay diverges when a
+ * change in game mechanics or world generation makes the same keys lead to a different state.
+ *
+ * New turn-based games played with interactWithKeyboard() are recorded too when the system property
+ * "mazeRunner.record" names a file (see Engine.RECORD_FILE). Loaded games and real-time games
+ * are not recorded: a loaded game does not start from a seed, and monsters of a real-time game
+ * move on a clock rather than on the turns of player.
+ *
+ * Usage: java mazeRunner.Core.ReplayDriver record SEED NAME KEYS FILE
+ *        java mazeRunner.Core.ReplayDriver replay FILE
+ */
+public class ReplayDriver {
+
+    /** Result of replaying a log. */
+    static class Result {
+        /** Number of keys replayed. */
+        final int keys;
+        /** Number of checkpoints verified. */
+        final int checkpoints;
+        /** Turn of the first checkpoint that does not match, or -1 if all checkpoints match. */
+        final int divergedAt;
+        /** Session in the state in which replay stops. */
+        final GameSession session;
+
+        Result(int keys, int checkpoints, int divergedAt, GameSession session) {
+            this.keys = keys;
+            this.checkpoints = checkpoints;
+            this.divergedAt = divergedAt;
+            this.session = session;
+        }
+
+        /** Whether all checkpoints match. */
+        boolean ok() {
+            return divergedAt < 0;
+        }
+    }
+
+    /**
+     * Play a new game with the default settings with keys from an input source and record it.
+     * @param seed seed for RNG
+     * @param playerName name of player
+     * @param keys source of keys
+     * @param out stream to write the replay log to. It is closed when recording finishes
+     * @param checkpointInterval number of turns between checkpoints
+     * @return session in the state in which recording finishes
+     */
+    static GameSession record(int seed, String playerName, InputSource keys, OutputStream out,
+                              int checkpointInterval) {
+        return record(new Engine(), seed, playerName, keys, out, checkpointInterval);
+    }
+
+    /**
+     * Play a new game on an engine with keys from an input source and record it, together with
+     * the settings of the engine.
+     * @param engine engine whose settings, e.g. monsterCount, are set, and whose world has not
+     * been generated yet
+     * @param seed seed for RNG
+     * @param playerName name of player
+     * @param keys source of keys
+     * @param out stream to write the replay log to. It is closed when recording finishes
+     * @param checkpointInterval number of turns between checkpoints
+     * @return session in the state in which recording finishes
+     */
+    static GameSession record(Engine engine, int seed, String playerName, InputSource keys,
+                              OutputStream out, int checkpointInterval) {
+        ReplayLog.Writer log = new ReplayLog.Writer(out, seed, playerName, engine);
+        engine.runEngine(seed, playerName, GameMechanics.INIT_PLAYER_HEALTH);
+        GameSession session = new GameSession(engine);
+        RecordingInputSource recorder = new RecordingInputSource(keys, session, log,
+                checkpointInterval);
+        while (recorder.possibleNextInput() && !session.isOver()) {
+            session.step(recorder.getNextKey());
+        }
+        recorder.close();
+        return session;
+    }
+
+    /**
+     * Replay a log on an engine with the settings recorded in it. Stops at the first checkpoint
+     * that does not match.
+     * @param in stream to read the replay log from. It is closed when replay finishes
+     * @return result of replay
+     * @throws IllegalArgumentException if the log is malformed or recorded with another version of
+     * the world generator
+     */
+    static Result replay(InputStream in) {
+        try (ReplayLog.Reader log = new ReplayLog.Reader(in)) {
+            if (log.generatorVersion() != Engine.GENERATOR_VERSION) {
+                throw new IllegalArgumentException("Replay log was recorded with generator version "
+                        + log.generatorVersion() + ", current version is " + Engine.GENERATOR_VERSION);
+            }
+            Engine engine = new Engine();
+            log.applySettings(engine);
+            engine.runEngine(log.seed(), log.playerName(), GameMechanics.INIT_PLAYER_HEALTH);
+            GameSession session = new GameSession(engine);
+            int keys = 0;
+            int checkpoints = 0;
+            while (log.next()) {
+                if (log.turn() != session.turn()) {
+                    return new Result(keys, checkpoints, log.turn(), session);
+                }
+                if (log.isCheckpoint()) {
+                    if (log.stateHash() != session.stateHash()) {
+                        return new Result(keys, checkpoints, log.turn(), session);
+                    }
+                    checkpoints += 1;
+                } else if (!session.isOver()) {
+                    session.step(log.key());
+                    keys += 1;
+                }
+            }
+            return new Result(keys, checkpoints, -1, session);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 5 && args[0].equals("record")) {
+            GameSession session = record(Integer.parseInt(args[1]), args[2],
+                    new StringInputDevice(args[3]), new FileOutputStream(args[4]),
+                    RecordingInputSource.CHECKPOINT_INTERVAL);
+            System.out.println("Recorded " + session.turn() + " turns to " + args[4]);
+        } else if (args.length == 2 && args[0].equals("replay")) {
+            long start = System.nanoTime();
+            Result result = replay(new FileInputStream(args[1]));
+            long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+            System.out.println("Replayed " + result.keys + " keys, verified " + result.checkpoints
+                    + " checkpoints in " + elapsedMs + " ms");
+            if (!result.ok()) {
+                System.out.println("Replay diverged at turn " + result.divergedAt);
+                System.exit(1);
+            }
+        } else {
+            System.out.println("Usage: ReplayDriver record SEED NAME KEYS FILE | replay FILE");
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package mazeRunner.Core;
+
+import java.io.*;
+
+/**
+ * Compact binary log of a game session, used to reproduce a session deterministically. The log
+ * starts with a header recording the seed, name of player, the version of the world generator
+ * and the settings of the engine that affect the game: objectDensity, monsterCount, minExitSteps,
+ * verifyPolicy and mobBudgetNanos. It is followed by a sequence of entries, each of which is
+ * either a key pressed or a checkpoint carrying a hash of the game state. Every entry records the
+ * turn (number of actions taken) at which it is written as a variable-length delta from the
+ * previous entry, so a key entry normally takes 3 bytes.
+ */
+class ReplayLog {
+    /** Magic number at the start of every replay log ("MZRL"). */
+    static final int MAGIC = 0x4D5A524C;
+    /** Version of the log format. */
+    static final byte FORMAT_VERSION = 2;
+    /** Tag of an entry recording a key pressed. */
+    static final byte TAG_KEY = 1;
+    /** Tag of an entry recording a hash of the game state. */
+    static final byte TAG_CHECKPOINT = 2;
+
+    /** Writes a replay log. */
+    static class Writer implements Closeable {
+        /** Stream to write to. */
+        private final DataOutputStream out;
+        /** Turn of the previous entry. */
+        private int lastTurn = 0;
+
+        /**
+         * Constructor of the class. Writes the header of the log.
+         * @param out stream to write to
+         * @param seed seed of the session
+         * @param playerName name of player
+         * @param settings engine whose settings the session is played with
+         */
+        Writer(OutputStream out, int seed, String playerName, Engine settings) {
+            this.out = new DataOutputStream(new BufferedOutputStream(out));
+            try {
+                this.out.writeInt(MAGIC);
+                this.out.writeByte(FORMAT_VERSION);
+                this.out.writeInt(Engine.GENERATOR_VERSION);
+                this.out.writeInt(seed);
+                this.out.writeUTF(playerName);
+                this.out.writeDouble(settings.objectDensity);
+                this.out.writeInt(settings.monsterCount);
+                this.out.writeInt(settings.minExitSteps);
+                this.out.writeUTF(settings.verifyPolicy.name());
+                this.out.writeLong(settings.mobBudgetNanos);
+            } catch (IOException excp) {
+                throw new IllegalArgumentException(excp.getMessage());
+            }
+        }
+
+        /** Record a key pressed at the given turn. */
+        void key(int turn, char key) {
+            try {
+                out.writeByte(TAG_KEY);
+                writeTurn(turn);
+                out.writeByte(key);
+            } catch (IOException excp) {
+                throw new IllegalArgumentException(excp.getMessage());
+            }
+        }
+
+        /** Record a hash of the game state at the given turn. */
+        void checkpoint(int turn, long stateHash) {
+            try {
+                out.writeByte(TAG_CHECKPOINT);
+                writeTurn(turn);
+                out.writeLong(stateHash);
+            } catch (IOException excp) {
+                throw new IllegalArgumentException(excp.getMessage());
+            }
+        }
+
+        /** Write turn as an unsigned variable-length delta from the turn of the previous entry. */
+        private void writeTurn(int turn) throws IOException {
+            int delta = turn - lastTurn;
+            lastTurn = turn;
+            while ((delta & ~0x7F) != 0) {
+                out.writeByte((delta & 0x7F) | 0x80);
+                delta >>>= 7;
+            }
+            out.writeByte(delta);
+        }
+
+        @Override
+        public void close() {
+            try {
+                out.close();
+            } catch (IOException excp) {
+                throw new IllegalArgumentException(excp.getMessage());
+            }
+        }
+    }
+
+    /** Reads a replay log one entry at a time. */
+    static class Reader implements Closeable {
+        /** Stream to read from. */
+        private final DataInputStream in;
+        /** Version of the world generator the log was recorded with. */
+        private final int generatorVersion;
+        /** Seed of the session. */
+        private final int seed;
+        /** Name of player. */
+        private final String playerName;
+        /** Settings of the engine the session was played with. Logs of version 1 do not record
+         * them, so the defaults of Engine are used. */
+        private double objectDensity = GameMechanics.DEFAULT_OBJECT_DENSITY;
+        private int monsterCount = 0;
+        private int minExitSteps = 0;
+        private LevelVerifier.Policy verifyPolicy = LevelVerifier.Policy.REPORT;
+        private long mobBudgetNanos = 0;
+        /** Tag of the current entry. */
+        private byte tag;
+        /** Turn of the current entry. */
+        private int turn = 0;
+        /** Key of the current entry, if it is a key entry. */
+        private char key;
+        /** State hash of the current entry, if it is a checkpoint. */
+        private long stateHash;
+
+        /**
+         * Constructor of the class. Reads the header of the log.
+         * @param in stream to read from
+         */
+        Reader(InputStream in) {
+            this.in = new DataInputStream(new BufferedInputStream(in));
+            try {
+                if (this.in.readInt() != MAGIC) {
+                    throw new IllegalArgumentException("not a replay log");
+                }
+                byte version = this.in.readByte();
+                if (version != 1 && version != FORMAT_VERSION) {
+                    throw new IllegalArgumentException("unsupported replay log version " + version);
+                }
+                generatorVersion = this.in.readInt();
+                seed = this.in.readInt();
+                playerName = this.in.readUTF();
+                if (version >= 2) {
+                    objectDensity = this.in.readDouble();
+                    monsterCount = this.in.readInt();
+                    minExitSteps = this.in.readInt();
+                    verifyPolicy = LevelVerifier.Policy.valueOf(this.in.readUTF());
+                    mobBudgetNanos = this.in.readLong();
+                }
+            } catch (IOException excp) {
+                throw new IllegalArgumentException(excp.getMessage());
+            }
+        }
+
+        /**
+         * Advance to the next entry.
+         * @return false if there are no more entries
+         */
+        boolean next() {
+            try {
+                int t = in.read();
+                if (t < 0) {
+                    return false;
+                }
+                tag = (byte) t;
+                turn += readDelta();
+                switch (tag) {
+                    case TAG_KEY -> key = (char) in.readUnsignedByte();
+                    case TAG_CHECKPOINT -> stateHash = in.readLong();
+                    default -> throw new IllegalArgumentException("unknown entry tag " + tag);
+                }
+                return true;
+            } catch (IOException excp) {
+                throw new IllegalArgumentException(excp.getMessage());
+            }
+        }
+
+        /** Read an unsigned variable-length delta. */
+        private int readDelta() throws IOException {
+            int delta = 0;
+            int shift = 0;
+            int b;
+            do {
+                b = in.readUnsignedByte();
+                delta |= (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            return delta;
+        }
+
+        int generatorVersion() {
+            return generatorVersion;
+        }
+
+        int seed() {
+            return seed;
+        }
+
+        String playerName() {
+            return playerName;
+        }
+
+        /** Give an engine the settings the session was played with. */
+        void applySettings(Engine engine) {
+            engine.objectDensity = objectDensity;
+            engine.monsterCount = monsterCount;
+            engine.minExitSteps = minExitSteps;
+            engine.verifyPolicy = verifyPolicy;
+            engine.mobBudgetNanos = mobBudgetNanos;
+        }
+
+        /** Whether the current entry is a checkpoint. */
+        boolean isCheckpoint() {
+            return tag == TAG_CHECKPOINT;
+        }
+
+        int turn() {
+            return turn;
+        }
+
+        char key() {
+            return key;
+        }
+
+        long stateHash() {
+            return stateHash;
+        }
+
+        @Override
+        public void close() {
+            try {
+                in.close();
+            } catch (IOException excp) {
+                throw new IllegalArgumentException(excp.getMessage());
+            }
+        }
+    }
+}
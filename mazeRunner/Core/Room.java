@@ -60,7 +60,7 @@ public class Room {
                 rooms.add(room);
             }
         }
-        KdTree.resetPartitionedSpace();
+        Metrics.add(Metrics.Counter.ROOMS_BUILT, rooms.size());
         return rooms;
     }
 
@@ -71,20 +71,30 @@ public class Room {
      * rooms. Draw the resulted hallway during each successful connection.
      * @param engine engine that the game runs on
      * @param rooms list of rooms generated
+     * @throws NoSuchElementException if the rooms cannot be fully connected, including when every
+     * candidate pair has failed to connect since the last successful connection
      */
     public static void connectRooms(Engine engine, ArrayList<Room> rooms) { ;
         WQUDisjointSet roomsDS = new WQUDisjointSet(rooms);
         TileGraph g = new TileGraph(rooms);
         int srcRoomIdx = 0;
+        int failures = 0;
         while (!roomsDS.connectedToAllObjects(srcRoomIdx)) {
             int tgtRoomIdx = getApproxAdjacUnconnectedRoom(roomsDS, rooms, srcRoomIdx);
             Hallway h = g.connect(srcRoomIdx, tgtRoomIdx);
+            Metrics.increment(Metrics.Counter.CONNECTION_ATTEMPTS);
             if (h != null) {
                 roomsDS.connect(srcRoomIdx, tgtRoomIdx);
                 drawSequence(engine, h.getPath(), patternFloor);
                 drawSequence(engine, h.getWalls(), patternWall);
                 srcRoomIdx = roomsDS.getLoneliestElement();
+                failures = 0;
             } else {
+                Metrics.increment(Metrics.Counter.FAILED_CONNECTIONS);
+                failures += 1;
+                if (failures > rooms.size() * rooms.size()) {
+                    throw new NoSuchElementException("The rooms cannot be fully connected");
+                }
                 Integer nok = roomsDS.nextOfKin(srcRoomIdx);
                 srcRoomIdx = (nok == null)? roomsDS.getNextLoneliestElement(srcRoomIdx) : nok;
             }
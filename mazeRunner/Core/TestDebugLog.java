@@ -0,0 +1,50 @@
+package mazeRunner.Core;
+
+import mazeRunner.TileEngine.TETile;
+import org.junit.Test;
+
+import java.io.*;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.Assert.*;
+
+public class TestDebugLog {
+
+    @Test
+    public void testDebugLogWritesEnabledLevelsAndMapDumps() throws IOException {
+        StringWriter out = new StringWriter();
+        ByteArrayOutputStream dump = new ByteArrayOutputStream();
+        try {
+            DebugLog.open(DebugLog.Level.INFO, out, dump);
+            DebugLog.log(DebugLog.Level.DEBUG, () -> {
+                throw new AssertionError("Message of a disabled level is built");
+            });
+            DebugLog.log(DebugLog.Level.INFO, "advanced");
+            GameSession session = new GameSession(3, "bot");
+            DebugLog.dumpMap(session.level(), session.turn(), session.tiles());
+            DebugLog.close();
+            assertEquals("INFO advanced\n", out.toString());
+            BufferedReader in = new BufferedReader(new InputStreamReader(
+                    new GZIPInputStream(new ByteArrayInputStream(dump.toByteArray()))));
+            assertEquals("# level 1 turn 0", in.readLine());
+            String top = in.readLine();
+            assertEquals(Engine.WORLD_WIDTH, top.length());
+            assertTrue(TETile.toString(session.tiles()).startsWith(top));
+        } finally {
+            DebugLog.reset();
+        }
+    }
+
+    @Test
+    public void testResetRestoresLevelOfSystemProperty() throws IOException {
+        DebugLog.Level expected = DebugLog.Level.valueOf(
+                System.getProperty("mazeRunner.log", "WARN").toUpperCase());
+        DebugLog.open(expected == DebugLog.Level.TRACE ? DebugLog.Level.OFF
+                : DebugLog.Level.TRACE, new StringWriter(), null);
+        DebugLog.reset();
+        for (DebugLog.Level l : DebugLog.Level.values()) {
+            assertEquals(l != DebugLog.Level.OFF && l.compareTo(expected) >= 0,
+                    DebugLog.enabled(l));
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package mazeRunner.Core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TestDistanceFields {
+
+    @Test
+    public void testDistanceFieldsUpdatedWhenBreadEaten() {
+        GameMechanics gm = new GameSession(11, "bot", 4).engine().gameMech;
+        DistanceFields fields = gm.distanceFields();
+        assertEquals(0, fields.distToExit(gm.exit));
+        GridBfs bfs = new GridBfs();
+        bfs.run(gm.engine.tiles, gm.player.pos, gm);
+        assertEquals(bfs.dist[GridBfs.cellOf(gm.exit)], fields.distToExit(gm.player.pos));
+        while (gm.breads.size() > 1) {
+            gm.removeBread(gm.breads.iterator().next().pos);
+            int[] incremental = fields.toBread.clone();
+            fields.compute(gm.engine.tiles, gm);
+            assertArrayEquals(fields.toBread, incremental);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package mazeRunner.Core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TestFreeCellPool {
+
+    @Test
+    public void testObjectCountsScaleWithDensity() {
+        GameMechanics sparse = new GameSession(3, "bot").engine().gameMech;
+        GameMechanics dense = new GameSession(3, "bot", 8).engine().gameMech;
+        assertTrue(dense.torches.size() > 4 * sparse.torches.size());
+        assertTrue(dense.breads.size() > 4 * sparse.breads.size());
+        assertTrue(dense.portalPairs.size() > 4 * sparse.portalPairs.size());
+    }
+
+    @Test
+    public void testOverfullLevelStillGenerates() {
+        GameMechanics gm = new GameSession(3, "bot", 1000).engine().gameMech;
+        assertEquals(0, new FreeCellPool(gm.engine.tiles, Engine.patternFloor).size());
+    }
+}
@@ -0,0 +1,50 @@
+package mazeRunner.Core;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+import static org.junit.Assert.*;
+
+public class TestGameMechanics {
+
+    @Test
+    public void testObjectIndexRebuiltAfterDeserialization() throws Exception {
+        GameMechanics gm = new GameSession(3, "bot").engine().gameMech;
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(gm);
+        }
+        GameMechanics loaded;
+        try (ObjectInputStream in = new ObjectInputStream(
+                new ByteArrayInputStream(bytes.toByteArray()))) {
+            loaded = (GameMechanics) in.readObject();
+        }
+        for (Bread b : loaded.breads) {
+            assertSame(b, loaded.findBreadFmPos(b.pos));
+        }
+        for (PortalPair pp : loaded.portalPairs) {
+            assertSame(pp, loaded.findPortalPairFmPos(pp.getOtherPortal().pos));
+        }
+        Bread eaten = loaded.breads.iterator().next();
+        loaded.removeBread(eaten.pos);
+        assertNull(loaded.objectAt(eaten.pos));
+        assertFalse(loaded.breads.contains(eaten));
+    }
+
+    @Test
+    public void testExitAtLeastMinStepsAway() {
+        for (int seed = 1; seed <= 3; seed += 1) {
+            Engine engine = new Engine();
+            engine.minExitSteps = 40;
+            engine.runEngine(seed, "bot", GameMechanics.INIT_PLAYER_HEALTH);
+            GameMechanics gm = engine.gameMech;
+            GridBfs bfs = new GridBfs();
+            bfs.run(engine.tiles, gm.player.pos);
+            assertTrue(bfs.stepsToEnter(gm.exit.getX(), gm.exit.getY()) >= 40);
+        }
+    }
+}
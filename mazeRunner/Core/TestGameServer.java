@@ -0,0 +1,91 @@
+package mazeRunner.Core;
+
+import mazeRunner.TileEngine.TETile;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.*;
+
+public class TestGameServer {
+
+    /** Characters of the tiles player of a session can see. */
+    private static char[][] visibleChars(GameSession session) {
+        Engine engine = session.engine();
+        TETile[][] visible = engine.gameMech.fieldOfView(engine.tiles, engine.fovTiles());
+        char[][] chars = new char[visible.length][visible[0].length];
+        for (int x = 0; x < visible.length; x += 1) {
+            for (int y = 0; y < visible[0].length; y += 1) {
+                chars[x][y] = visible[x][y].character();
+            }
+        }
+        return chars;
+    }
+
+    @Test
+    public void testServerSendsDeltaFramesToLoopbackClients() {
+        try (GameServer server = new GameServer(0, new LevelCache(LevelCache.DEFAULT_MAX_BYTES,
+                null));
+             GameServer.Client a = new GameServer.Client(server.port(), 9, "a");
+             GameServer.Client b = new GameServer.Client(server.port(), 9, "b")) {
+            GameSession local = new GameSession(9, "local");
+            assertArrayEquals(visibleChars(local), a.tiles);
+            assertArrayEquals(visibleChars(local), b.tiles);
+            assertEquals(2, server.activeSessions());
+            long fullBytes = server.bytesSent.sum() / 2;
+
+            String keys = "ddwwassd hdxw";
+            for (int i = 0; i < keys.length(); i += 1) {
+                a.press(keys.charAt(i));
+                local.step(keys.charAt(i));
+                assertArrayEquals(visibleChars(local), a.tiles);
+                assertEquals(local.engine().gameMech.player.health, a.health);
+            }
+            long deltaBytes = (server.bytesSent.sum() - 2 * fullBytes) / keys.length();
+            assertTrue(deltaBytes * 10 < fullBytes);
+
+            b.press(' ');
+            GameSession other = new GameSession(9, "other");
+            other.step(' ');
+            assertArrayEquals(visibleChars(other), b.tiles);
+            assertEquals(GameMechanics.INIT_PLAYER_HEALTH - 1, b.health);
+        }
+    }
+
+    @Test
+    public void testServerHandlesClientsJoiningAtOnce() throws Exception {
+        LevelCache cache = new LevelCache(LevelCache.DEFAULT_MAX_BYTES, null);
+        int clients = 12;
+        try (GameServer server = new GameServer(0, cache)) {
+            ExecutorService pool = Executors.newFixedThreadPool(clients);
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<char[][]>> maps = new ArrayList<>();
+            for (int i = 0; i < clients; i += 1) {
+                // half of the clients share seed 40, the others have distinct seeds
+                int seed = i % 2 == 0 ? 40 : 41 + i;
+                maps.add(pool.submit(() -> {
+                    start.await();
+                    try (GameServer.Client c = new GameServer.Client(server.port(), seed, "p")) {
+                        c.press('d');
+                        return c.tiles;
+                    }
+                }));
+            }
+            start.countDown();
+            for (int i = 0; i < clients; i += 1) {
+                GameSession local = new GameSession(i % 2 == 0 ? 40 : 41 + i, "local");
+                local.step('d');
+                assertArrayEquals(visibleChars(local), maps.get(i).get());
+            }
+            pool.shutdown();
+            assertEquals(0, server.sessionsFailed.sum());
+            // the shared seed was generated once
+            assertEquals(1 + clients / 2, cache.misses);
+        }
+    }
+}
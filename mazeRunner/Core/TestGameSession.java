@@ -0,0 +1,68 @@
+package mazeRunner.Core;
+
+import mazeRunner.Input.StringInputDevice;
+import mazeRunner.TileEngine.TETile;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TestGameSession {
+
+    private static final String KEYS = "wwwwaaaassssddddhwdsawdsawdsa";
+
+    @Test
+    public void testSameSeedAndKeysGiveSameWorld() {
+        GameSession s1 = new GameSession(42, "bot");
+        GameSession s2 = new GameSession(42, "bot");
+        for (char c : KEYS.toCharArray()) {
+            assertEquals(s1.step(c), s2.step(c));
+        }
+        assertEquals(TETile.toString(s1.tiles()), TETile.toString(s2.tiles()));
+        assertEquals(s1.health(), s2.health());
+        assertEquals(s1.turn(), s2.turn());
+    }
+
+    @Test
+    public void testMatchesInputStringEngine() {
+        GameSession session = new GameSession(1234, "placeholder");
+        for (char c : KEYS.toCharArray()) {
+            session.step(c);
+        }
+        Engine engine = new Engine();
+        engine.runStaticEngine(1234, new StringInputDevice(KEYS),
+                "placeholder", GameMechanics.INIT_PLAYER_HEALTH);
+        assertEquals(TETile.toString(engine.tiles), TETile.toString(session.tiles()));
+    }
+
+    @Test
+    public void testUnboundKeyIsIgnored() {
+        GameSession session = new GameSession(7, "bot");
+        int health = session.health();
+        assertEquals(GameSession.Outcome.IGNORED, session.step('x'));
+        assertEquals(health, session.health());
+        assertEquals(0, session.turn());
+    }
+
+    @Test
+    public void testIdleUntilDeath() {
+        GameSession session = new GameSession(7, "bot");
+        int turns = 0;
+        GameSession.Outcome outcome;
+        do {
+            outcome = session.step(GameSession.Action.IDLE);
+            turns += 1;
+        } while (outcome == GameSession.Outcome.STAYED);
+        assertEquals(GameSession.Outcome.DIED, outcome);
+        assertEquals(GameMechanics.INIT_PLAYER_HEALTH, turns);
+        assertTrue(session.isOver());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testStepAfterDeathThrows() {
+        GameSession session = new GameSession(7, "bot");
+        while (!session.isOver()) {
+            session.step(GameSession.Action.IDLE);
+        }
+        session.step(GameSession.Action.UP);
+    }
+}
@@ -1,7 +1,12 @@
 package mazeRunner.Core;
 
 import org.junit.Test;
+import java.util.ArrayList;
 import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import static org.junit.Assert.*;
 
 public class TestKdTree {
@@ -61,7 +66,6 @@ public class TestKdTree {
         assertEquals(new Position(5, 49), ls.get(2).upperRight);
         assertEquals(new Position(0, 0), ls.get(3).lowerLeft);
         assertEquals(new Position(5, 2), ls.get(3).upperRight);
-        KdTree.resetPartitionedSpace();
     }
 
     @Test
@@ -75,6 +79,29 @@ public class TestKdTree {
         assertEquals(new Position(5, 49), ls.get(2).upperRight);
         assertEquals(new Position(0, 2), ls.get(3).lowerLeft);
         assertEquals(new Position(4, 49), ls.get(3).upperRight);
-        KdTree.resetPartitionedSpace();
+    }
+
+    @Test
+    public void testLevelsGeneratedConcurrentlyMatchLevelsGeneratedAlone() throws Exception {
+        int threads = 8;
+        long[] expected = new long[threads];
+        for (int i = 0; i < threads; i += 1) {
+            expected[i] = new GameSession(100 + i, "bot").stateHash();
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Long>> hashes = new ArrayList<>();
+            for (int round = 0; round < 6; round += 1) {
+                for (int i = 0; i < threads; i += 1) {
+                    int seed = 100 + i;
+                    hashes.add(pool.submit(() -> new GameSession(seed, "bot").stateHash()));
+                }
+            }
+            for (int i = 0; i < hashes.size(); i += 1) {
+                assertEquals(expected[i % threads], (long) hashes.get(i).get());
+            }
+        } finally {
+            pool.shutdown();
+        }
     }
 }
@@ -0,0 +1,21 @@
+package mazeRunner.Core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TestLatencyHistogram {
+
+    @Test
+    public void testLatencyHistogramPercentiles() {
+        LatencyHistogram h = new LatencyHistogram();
+        for (int i = 1; i <= 1000; i += 1) {
+            h.record(i * 1000L);
+        }
+        assertEquals(1000, h.count());
+        assertEquals(1_000_000, h.max());
+        assertEquals(500_000, h.percentile(0.5), 500_000 / 8);
+        assertEquals(990_000, h.percentile(0.99), 990_000 / 8);
+        assertEquals(1_000_000, h.percentile(1));
+    }
+}
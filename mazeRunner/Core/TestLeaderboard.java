@@ -0,0 +1,123 @@
+package mazeRunner.Core;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class TestLeaderboard {
+
+    private static File tempDir() throws IOException {
+        File dir = Files.createTempDirectory("lb").toFile();
+        dir.deleteOnExit();
+        return dir;
+    }
+
+    @Test
+    public void testUpdateDoesNotDropEntriesWhenNotFull() {
+        Leaderboard lb = new Leaderboard();
+        lb.LBEntries = new ArrayList<>();
+        lb.update("a", 1);
+        lb.update("b", 3);
+        lb.update("c", 2);
+        assertEquals(3, lb.LBEntries.size());
+        assertEquals("b", lb.LBEntries.get(0).playerName);
+        assertEquals("c", lb.LBEntries.get(1).playerName);
+        assertEquals("a", lb.LBEntries.get(2).playerName);
+    }
+
+    @Test
+    public void testUpdateKeepsTopEntriesWhenFull() {
+        Leaderboard lb = new Leaderboard();
+        lb.LBEntries = new ArrayList<>();
+        for (int i = 1; i <= Leaderboard.ENTRIES_TO_KEEP + 2; i += 1) {
+            lb.update("p" + i, i);
+        }
+        assertEquals(Leaderboard.ENTRIES_TO_KEEP, lb.LBEntries.size());
+        assertEquals(Leaderboard.ENTRIES_TO_KEEP + 2, lb.LBEntries.get(0).level);
+    }
+
+    @Test
+    public void testStoreTopK() throws IOException {
+        LeaderboardStore store = LeaderboardStore.open(tempDir());
+        for (int i = 0; i < 5000; i += 1) {
+            store.submit("p" + (i % 50), (i * 7919) % 1000);
+        }
+        assertEquals(5000, store.size());
+        List<LeaderboardStore.Record> top = store.top(3);
+        assertEquals(3, top.size());
+        assertTrue(top.get(0).level >= top.get(1).level);
+        assertTrue(top.get(1).level >= top.get(2).level);
+        assertEquals(999, top.get(0).level);
+    }
+
+    @Test
+    public void testStoreTiesRankedByTimeOfCompletion() throws IOException {
+        LeaderboardStore store = LeaderboardStore.open(tempDir());
+        store.submit("first", 5);
+        store.submit("second", 5);
+        assertEquals("first", store.top(1).get(0).playerName);
+    }
+
+    @Test
+    public void testStorePersonalBest() throws IOException {
+        LeaderboardStore store = LeaderboardStore.open(tempDir());
+        store.submit("alice", 3);
+        store.submit("bob", 7);
+        store.submit("alice", 9);
+        store.submit("alice", 2);
+        assertEquals(9, store.personalBest("alice").level);
+        assertEquals(7, store.personalBest("bob").level);
+        assertNull(store.personalBest("carol"));
+    }
+
+    @Test
+    public void testStoreReloadsFromLog() throws IOException {
+        File dir = tempDir();
+        LeaderboardStore store = LeaderboardStore.open(dir);
+        store.submit("alice", 3);
+        store.submit("bob", 7);
+        store.flush();
+        LeaderboardStore reloaded = new LeaderboardStore(new File(dir, LeaderboardStore.LOG_NAME));
+        assertEquals(2, reloaded.size());
+        assertEquals("bob", reloaded.top(1).get(0).playerName);
+        Leaderboard lb = new Leaderboard().load(reloaded);
+        assertEquals(2, lb.LBEntries.size());
+        assertEquals(7, lb.LBEntries.get(0).level);
+    }
+
+    @Test
+    public void testConcurrentSubmissionsAreNotLost() throws Exception {
+        File dir = tempDir();
+        File log = new File(dir, LeaderboardStore.LOG_NAME);
+        LeaderboardStore shared = LeaderboardStore.open(dir);
+        // a second store on the same log stands in for another process
+        LeaderboardStore other = new LeaderboardStore(log);
+        int threads = 8;
+        int perThread = 500;
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t += 1) {
+            LeaderboardStore store = t % 2 == 0 ? shared : other;
+            String name = "p" + t;
+            workers[t] = new Thread(() -> {
+                for (int i = 0; i < perThread; i += 1) {
+                    store.submit(name, i);
+                }
+            });
+            workers[t].start();
+        }
+        for (Thread w : workers) {
+            w.join();
+        }
+        shared.flush();
+        other.flush();
+        shared.refresh();
+        assertEquals(threads * perThread, shared.size());
+        assertEquals(threads * perThread, new LeaderboardStore(log).size());
+    }
+}
@@ -0,0 +1,82 @@
+package mazeRunner.Core;
+
+import mazeRunner.TileEngine.TETile;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import static org.junit.Assert.*;
+
+public class TestLevelCache {
+
+    @Test
+    public void testCachedLevelsMatchGeneratedLevelsAndStayUnchanged() throws IOException {
+        File dir = Files.createTempDirectory("levels").toFile();
+        LevelCache cache = new LevelCache(LevelCache.DEFAULT_MAX_BYTES, dir);
+        Engine first = new Engine();
+        first.levelCache = cache;
+        first.runEngine(33, "bot", GameMechanics.INIT_PLAYER_HEALTH);
+        String generated = TETile.toString(first.tiles);
+        Engine cached = new Engine();
+        cached.levelCache = cache;
+        cached.runEngine(33, "bot", GameMechanics.INIT_PLAYER_HEALTH);
+        assertEquals(1, cache.misses);
+        assertEquals(1, cache.hits);
+        assertNotSame(first.gameMech, cached.gameMech);
+
+        Engine plain = new Engine();
+        plain.runEngine(33, "bot", GameMechanics.INIT_PLAYER_HEALTH);
+        GameSession a = new GameSession(cached);
+        GameSession b = new GameSession(plain);
+        GameSession.Action[] actions = {GameSession.Action.RIGHT, GameSession.Action.UP,
+                GameSession.Action.RIGHT, GameSession.Action.DOWN, GameSession.Action.LEFT};
+        for (int i = 0; i < 40; i += 1) {
+            a.step(actions[i % actions.length]);
+            b.step(actions[i % actions.length]);
+            assertEquals(b.stateHash(), a.stateHash());
+        }
+        assertEquals(plain.random.nextInt(), cached.random.nextInt());
+
+        Engine again = new Engine();
+        again.levelCache = cache;
+        again.runEngine(33, "bot", GameMechanics.INIT_PLAYER_HEALTH);
+        assertEquals(generated, TETile.toString(again.tiles));
+        Engine fromDisk = new Engine();
+        fromDisk.levelCache = new LevelCache(1, dir);
+        fromDisk.runEngine(33, "bot", GameMechanics.INIT_PLAYER_HEALTH);
+        assertEquals(1, fromDisk.levelCache.diskHits);
+        assertEquals(generated, TETile.toString(fromDisk.tiles));
+        fromDisk.runEngine(34, "bot", GameMechanics.INIT_PLAYER_HEALTH);
+        assertEquals(1, fromDisk.levelCache.size());
+    }
+
+    @Test
+    public void testSessionsOnOneSeedShareTheBaseWorld() {
+        LevelCache cache = new LevelCache(LevelCache.DEFAULT_MAX_BYTES, null);
+        GameSession a = new GameSession(12, "a", cache);
+        GameSession b = new GameSession(12, "b", cache);
+        GameMechanics gmA = a.engine().gameMech;
+        GameMechanics gmB = b.engine().gameMech;
+        assertSame(gmA.torches, gmB.torches);
+        assertNotSame(gmA.player, gmB.player);
+        for (int x = 0; x < Engine.WORLD_WIDTH; x += 1) {
+            assertSame(a.tiles()[x], b.tiles()[x]);
+        }
+
+        Bread bread = gmA.breads.iterator().next();
+        gmA.removeBread(bread.pos);
+        a.engine().changeTilePattern(bread.pos, Engine.patternFloor);
+        assertNull(gmA.objectAt(bread.pos));
+        assertSame(bread, gmB.objectAt(bread.pos));
+        assertTrue(gmB.breads.contains(bread));
+        assertSame(Engine.patternBread, b.tiles()[bread.pos.getX()][bread.pos.getY()]);
+        assertNotSame(a.tiles()[bread.pos.getX()], b.tiles()[bread.pos.getX()]);
+
+        Position start = gmB.player.pos;
+        a.step(GameSession.Action.IDLE);
+        assertEquals(GameMechanics.INIT_PLAYER_HEALTH, gmB.player.health);
+        assertEquals(start, new GameSession(12, "c", cache).engine().gameMech.player.pos);
+    }
+}
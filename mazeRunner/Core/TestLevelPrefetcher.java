@@ -0,0 +1,31 @@
+package mazeRunner.Core;
+
+import mazeRunner.TileEngine.TETile;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TestLevelPrefetcher {
+
+    @Test
+    public void testPrefetchedLevelsMatchLevelsGeneratedOnArrival() {
+        Engine prefetching = new Engine();
+        prefetching.prefetcher = new LevelPrefetcher();
+        prefetching.runEngine(21, "bot", GameMechanics.INIT_PLAYER_HEALTH);
+        Engine plain = new Engine();
+        plain.runEngine(21, "bot", GameMechanics.INIT_PLAYER_HEALTH);
+        GameSession a = new GameSession(prefetching);
+        GameSession b = new GameSession(plain);
+        for (int i = 0; i < 3; i += 1) {
+            a.step(GameSession.Action.RIGHT);
+            b.step(GameSession.Action.RIGHT);
+            prefetching.advanceLevel();
+            plain.advanceLevel();
+            assertEquals(b.stateHash(), a.stateHash());
+        }
+        assertEquals(3, prefetching.prefetcher.hits);
+        TETile[][] tiles = a.tiles();
+        assertSame(prefetching.tiles, tiles);
+        assertSame(prefetching, prefetching.gameMech.engine);
+    }
+}
@@ -0,0 +1,25 @@
+package mazeRunner.Core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TestLevelSolver {
+
+    @Test
+    public void testSolverFindsShortestRouteWithinHealth() {
+        GameMechanics gm = new GameSession(11, "bot", 4).engine().gameMech;
+        int dist = gm.distanceFields().distToExit(gm.player.pos);
+        LevelSolver solver = new LevelSolver();
+        LevelSolver.Solution solution = solver.solve(gm);
+        assertEquals(dist, solution.turns);
+        gm.player.health = dist + 1;
+        assertEquals(dist, solver.solve(gm).turns);
+        // player dies on the last step unless a bread is eaten on the way
+        gm.player.health = dist;
+        solution = solver.solve(gm);
+        assertTrue(!solution.solvable() || solution.breadsEaten > 0 && solution.turns >= dist);
+        gm.player.health = 1;
+        assertFalse(solver.solve(gm).solvable());
+    }
+}
@@ -0,0 +1,30 @@
+package mazeRunner.Core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TestLevelVerifier {
+
+    @Test
+    public void testVerifierRepairsUnreachableBread() {
+        Engine engine = new Engine();
+        engine.verifyPolicy = LevelVerifier.Policy.REPORT;
+        engine.runEngine(5, "bot", GameMechanics.INIT_PLAYER_HEALTH);
+        assertTrue(engine.levelReport.ok());
+        assertTrue(engine.levelReport.exitSteps > 0);
+        // wall in a bread
+        Bread bread = engine.gameMech.breads.iterator().next();
+        int x = bread.pos.getX();
+        int y = bread.pos.getY();
+        engine.changeTilePattern(x + 1, y, Engine.patternWall);
+        engine.changeTilePattern(x - 1, y, Engine.patternWall);
+        engine.changeTilePattern(x, y + 1, Engine.patternWall);
+        engine.changeTilePattern(x, y - 1, Engine.patternWall);
+        LevelVerifier.Report report = LevelVerifier.verify(engine, new GridBfs());
+        assertTrue(report.unreachable.contains(bread));
+        assertTrue(LevelVerifier.check(engine, LevelVerifier.Policy.REPAIR));
+        assertTrue(engine.levelReport.ok());
+        assertSame(bread, engine.gameMech.findBreadFmPos(bread.pos));
+    }
+}
@@ -0,0 +1,43 @@
+package mazeRunner.Core;
+
+import mazeRunner.TileEngine.TETile;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.*;
+
+public class TestMapExporter {
+
+    @Test
+    public void testMapExporterMatchesToStringAndRoundTripsRle() throws IOException {
+        TETile[][] tiles = new GameSession(3, "bot").tiles();
+        StringWriter plain = new StringWriter();
+        new MapExporter(MapExporter.Encoding.PLAIN).export(tiles, plain);
+        assertEquals(TETile.toString(tiles).replace("\t", ""), plain.toString());
+
+        // a map larger than the buffers, written to a channel
+        TETile[][] big = new TETile[600][300];
+        for (int x = 0; x < big.length; x += 1) {
+            for (int y = 0; y < big[0].length; y += 1) {
+                big[x][y] = tiles[(x * 7 + y) % 75 / 10][y % 30];
+            }
+        }
+        MapExporter rle = new MapExporter(MapExporter.Encoding.RLE);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        rle.export(big, Channels.newChannel(bytes));
+        StringWriter expected = new StringWriter();
+        new MapExporter(MapExporter.Encoding.PLAIN).export(big, expected);
+        String[] lines = bytes.toString(StandardCharsets.UTF_8).split("\n");
+        String[] expectedLines = expected.toString().split("\n");
+        assertEquals(expectedLines.length, lines.length);
+        for (int i = 0; i < lines.length; i += 1) {
+            assertEquals(expectedLines[i], MapExporter.decodeRle(lines[i]));
+        }
+        assertTrue(bytes.size() < expected.toString().length());
+    }
+}
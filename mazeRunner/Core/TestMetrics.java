@@ -0,0 +1,106 @@
+package mazeRunner.Core;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.*;
+
+public class TestMetrics {
+
+    /** Generate a few levels and exit, so that the shutdown hook exports one snapshot. Run in a
+     * JVM of its own by testEnabledMetricsAreExportedAsJsonLines(), since whether metrics are
+     * enabled is fixed when Metrics is loaded. */
+    public static void main(String[] args) {
+        Metrics.startExportIfConfigured();
+        // the rooms of seed 226 cannot be connected at the first attempt
+        for (int seed : new int[] {1, 2, 226}) {
+            GameSession session = new GameSession(seed, "bot");
+            session.step(GameSession.Action.IDLE);
+        }
+    }
+
+    /** Value of a counter in a JSON line, or of a field of a timer if field is not null. */
+    private static long valueOf(String json, String name, String field) {
+        String key = field == null ? "\"" + name + "\":"
+                : "\"" + name + "\":\\{[^}]*\"" + field + "\":";
+        Matcher m = Pattern.compile(key + "(\\d+)").matcher(json);
+        assertTrue(name + " missing from " + json, m.find());
+        return Long.parseLong(m.group(1));
+    }
+
+    @Test
+    public void testDisabledMetricsStayZero() {
+        // tests run without -DmazeRunner.metrics
+        assertFalse(Metrics.ENABLED);
+        Metrics.increment(Metrics.Counter.ROOMS_BUILT);
+        Metrics.add(Metrics.Counter.MONSTER_MOVES, 5);
+        assertEquals(0, Metrics.start());
+        Metrics.stop(Metrics.Timer.LEVEL, System.nanoTime() - 1000);
+        new GameSession(1, "bot").step(GameSession.Action.IDLE);
+        Metrics.Snapshot s = Metrics.snapshot();
+        for (Metrics.Counter c : Metrics.Counter.values()) {
+            assertEquals(0, s.count(c));
+        }
+        for (Metrics.Timer t : Metrics.Timer.values()) {
+            assertEquals(0, s.timerCount(t));
+            assertEquals(0, s.timerTotalNanos(t));
+            assertEquals(0, s.timerMaxNanos(t));
+        }
+    }
+
+    @Test
+    public void testSnapshotIsOneJsonLineWithEveryMetric() {
+        String json = Metrics.snapshot().toJson();
+        assertFalse(json.contains("\n"));
+        assertTrue(json.matches("\\{\"time\":\\d+(,\"[a-z_]+\":(\\d+|\\{\"count\":\\d+,"
+                + "\"totalNanos\":\\d+,\"maxNanos\":\\d+\\}))+\\}"));
+        for (Metrics.Counter c : Metrics.Counter.values()) {
+            valueOf(json, c.name().toLowerCase(), null);
+        }
+        for (Metrics.Timer t : Metrics.Timer.values()) {
+            valueOf(json, t.name().toLowerCase(), "count");
+        }
+    }
+
+    @Test
+    public void testEnabledMetricsAreExportedAsJsonLines() throws IOException,
+            InterruptedException {
+        File out = Files.createTempFile("metrics", ".jsonl").toFile();
+        out.deleteOnExit();
+        Process child = new ProcessBuilder(
+                new File(System.getProperty("java.home"), "bin/java").getPath(),
+                "-Djava.awt.headless=true", "-DmazeRunner.metrics=true",
+                "-DmazeRunner.metrics.out=" + out.getPath(),
+                "-DmazeRunner.metrics.periodMs=3600000",
+                "-cp", System.getProperty("java.class.path"), TestMetrics.class.getName())
+                .inheritIO().start();
+        assertTrue(child.waitFor(2, TimeUnit.MINUTES));
+        assertEquals(0, child.exitValue());
+
+        // only the export at shutdown, as the period is an hour
+        List<String> lines = Files.readAllLines(out.toPath(), StandardCharsets.UTF_8);
+        assertEquals(1, lines.size());
+        String json = lines.get(0);
+        assertTrue(json.matches("\\{\"time\":\\d+,.*\\}"));
+        assertEquals(3, valueOf(json, "level", "count"));
+        assertTrue(valueOf(json, "rooms_built", null) > 0);
+        assertTrue(valueOf(json, "connection_attempts", null) > 0);
+        assertEquals(3, valueOf(json, "turn", "count"));
+        assertTrue(valueOf(json, "build_rooms", "count") > 3);
+        // every attempt to build rooms is followed by a timed attempt to connect them, even
+        // when connecting fails
+        assertEquals(valueOf(json, "build_rooms", "count"),
+                valueOf(json, "connect_rooms", "count"));
+        assertTrue(valueOf(json, "level", "maxNanos") > 0);
+        assertTrue(valueOf(json, "level", "totalNanos")
+                >= valueOf(json, "level", "maxNanos"));
+    }
+}
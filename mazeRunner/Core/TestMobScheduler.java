@@ -0,0 +1,97 @@
+package mazeRunner.Core;
+
+import mazeRunner.TileEngine.TETile;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TestMobScheduler {
+
+    @Test
+    public void testMonstersChasePlayer() {
+        Engine engine = new Engine();
+        engine.monsterCount = 20;
+        engine.mobBudgetNanos = 0;
+        engine.runEngine(7, "bot", GameMechanics.INIT_PLAYER_HEALTH);
+        GameSession session = new GameSession(engine);
+        assertEquals(20, engine.gameMech.monsters.size());
+        int turns = 0;
+        while (!session.isOver() && turns < 300
+                && session.health() == GameMechanics.INIT_PLAYER_HEALTH - turns) {
+            session.step(GameSession.Action.IDLE);
+            turns += 1;
+        }
+        // a monster reached player and dealt damage on top of the cost of idling
+        assertTrue(session.isOver()
+                || session.health() < GameMechanics.INIT_PLAYER_HEALTH - turns);
+        int monsterTiles = 0;
+        for (TETile[] column : engine.tiles) {
+            for (TETile t : column) {
+                monsterTiles += t.isSameType(Engine.patternMonster) ? 1 : 0;
+            }
+        }
+        assertEquals(20, monsterTiles);
+    }
+
+    @Test
+    public void testTurnBasedGamesWithMonstersAreDeterministic() {
+        long[] hashes = new long[2];
+        for (int i = 0; i < hashes.length; i += 1) {
+            Engine engine = new Engine();
+            engine.monsterCount = 50;
+            engine.runEngine(7, "bot", GameMechanics.INIT_PLAYER_HEALTH);
+            GameSession session = new GameSession(engine);
+            for (int turn = 0; turn < 20 && !session.isOver(); turn += 1) {
+                session.step(GameSession.Action.IDLE);
+            }
+            assertEquals(0, engine.mobs.deferred);
+            hashes[i] = session.stateHash();
+        }
+        assertEquals(hashes[0], hashes[1]);
+    }
+
+    @Test
+    public void testMobTickDefersMonstersBeyondBudget() {
+        Engine engine = new Engine();
+        engine.monsterCount = 10;
+        engine.mobBudgetNanos = 1;
+        engine.runEngine(7, "bot", GameMechanics.INIT_PLAYER_HEALTH);
+        new GameSession(engine).step(GameSession.Action.IDLE);
+        assertEquals(9, engine.mobs.deferred);
+    }
+
+    /** Positions of the monsters of the level of an engine. */
+    private static String monsterPositions(Engine engine) {
+        StringBuilder sb = new StringBuilder();
+        for (Monster m : engine.gameMech.monsters) {
+            sb.append(m.pos.getX()).append(',').append(m.pos.getY()).append(' ');
+        }
+        return sb.toString();
+    }
+
+    @Test
+    public void testMonstersOnlyMoveWhenPlayerSpendsATurn() {
+        Engine engine = new Engine();
+        engine.monsterCount = 5;
+        engine.runEngine(7, "bot", GameMechanics.INIT_PLAYER_HEALTH);
+        GameSession session = new GameSession(engine);
+        String monsters = monsterPositions(engine);
+        session.step(GameSession.Action.TOGGLE_LIGHTS);
+        assertEquals(monsters, monsterPositions(engine));
+
+        // walk right until player is blocked, then walk into the obstacle again
+        GameSession.Outcome outcome;
+        do {
+            outcome = session.step(GameSession.Action.RIGHT);
+        } while (outcome == GameSession.Outcome.MOVED);
+        assertEquals(GameSession.Outcome.STAYED, outcome);
+        monsters = monsterPositions(engine);
+        int health = session.health();
+        assertEquals(GameSession.Outcome.STAYED, session.step(GameSession.Action.RIGHT));
+        assertEquals(monsters, monsterPositions(engine));
+        assertEquals(health, session.health());
+
+        session.step(GameSession.Action.IDLE);
+        assertNotEquals(monsters, monsterPositions(engine));
+    }
+}
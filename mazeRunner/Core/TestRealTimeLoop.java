@@ -0,0 +1,33 @@
+package mazeRunner.Core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TestRealTimeLoop {
+
+    @Test
+    public void testRealTimeLoopAppliesKeysAndMovesMonstersOnClock() {
+        Engine engine = new Engine();
+        engine.monsterCount = 5;
+        engine.mobBudgetNanos = 0;
+        engine.runEngine(7, "bot", GameMechanics.INIT_PLAYER_HEALTH);
+        RealTimeLoop loop = new RealTimeLoop(new GameSession(engine));
+        WorldSnapshot first = loop.latest();
+        loop.submit(' ');
+        loop.tick();
+        WorldSnapshot second = loop.latest();
+        assertEquals(1, second.tick);
+        assertEquals(first.health - 1, second.health);
+        assertNotSame(engine.fovTiles(), second.tiles);
+        // monsters only move on their tick
+        long hash = new GameSession(engine).stateHash();
+        for (int i = 1; i < RealTimeLoop.MOB_TICK_INTERVAL - 1; i += 1) {
+            loop.tick();
+        }
+        assertEquals(hash, new GameSession(engine).stateHash());
+        loop.tick();
+        assertNotEquals(hash, new GameSession(engine).stateHash());
+        assertEquals(RealTimeLoop.MOB_TICK_INTERVAL, loop.tickTimes.count());
+    }
+}
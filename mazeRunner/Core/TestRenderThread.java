@@ -0,0 +1,60 @@
+package mazeRunner.Core;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class TestRenderThread {
+
+    @Test
+    public void testRenderThreadDrawsLatestSnapshotAndDropsStaleOnes() throws Exception {
+        Engine engine = new GameSession(7, "bot").engine();
+        List<WorldSnapshot> drawn = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch drawing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        RenderThread renderer = new RenderThread(false, new RenderThread.Canvas() {
+            @Override
+            public String describeTileAtCursor(WorldSnapshot snapshot) {
+                return "";
+            }
+
+            @Override
+            public void draw(WorldSnapshot snapshot, double alpha, String description) {
+                drawn.add(snapshot);
+                drawing.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException excp) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        WorldSnapshot first = WorldSnapshot.take(engine, 0, null);
+        renderer.publish(first);
+        renderer.start();
+        assertTrue(drawing.await(5, TimeUnit.SECONDS));
+        // published while the first frame is being drawn, so only the last one is drawn next
+        WorldSnapshot last = first;
+        for (int tick = 1; tick <= 3; tick += 1) {
+            last = WorldSnapshot.take(engine, tick, last);
+            renderer.publish(last);
+        }
+        release.countDown();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (drawn.size() < 2 && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        // nothing changes after that, so no frame is drawn again
+        Thread.sleep(5000 / RenderThread.FRAME_HZ);
+        renderer.stop();
+        assertEquals(List.of(first, last), drawn);
+        assertEquals(2, renderer.dropped());
+        assertEquals(2, renderer.frameTimes.count());
+    }
+}
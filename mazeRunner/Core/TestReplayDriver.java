@@ -0,0 +1,59 @@
+package mazeRunner.Core;
+
+import mazeRunner.Input.StringInputDevice;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+
+import static org.junit.Assert.*;
+
+public class TestReplayDriver {
+
+    private static final String KEYS = "wwwwaaaassssddddhwdsawdsawdsa";
+
+    @Test
+    public void testReplayReproducesRecordedSession() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        GameSession recorded = ReplayDriver.record(99, "bot", new StringInputDevice(KEYS + KEYS),
+                out, 8);
+        ReplayDriver.Result result = ReplayDriver.replay(new ByteArrayInputStream(out.toByteArray()));
+        assertTrue(result.ok());
+        assertTrue(result.checkpoints > 1);
+        assertEquals(recorded.stateHash(), result.session.stateHash());
+        assertEquals(recorded.turn(), result.session.turn());
+    }
+
+    @Test
+    public void testReplayUsesRecordedSettings() {
+        Engine engine = new Engine();
+        engine.objectDensity = 2.0;
+        engine.monsterCount = 3;
+        engine.minExitSteps = 20;
+        engine.verifyPolicy = LevelVerifier.Policy.OFF;
+        engine.mobBudgetNanos = 0;
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        GameSession recorded = ReplayDriver.record(engine, 99, "bot",
+                new StringInputDevice(KEYS + KEYS), out, 8);
+        ReplayDriver.Result result = ReplayDriver.replay(new ByteArrayInputStream(out.toByteArray()));
+        assertTrue(result.ok());
+        Engine replayed = result.session.engine();
+        assertEquals(2.0, replayed.objectDensity, 0);
+        assertEquals(3, replayed.monsterCount);
+        assertEquals(20, replayed.minExitSteps);
+        assertEquals(LevelVerifier.Policy.OFF, replayed.verifyPolicy);
+        assertEquals(0, replayed.mobBudgetNanos);
+        assertEquals(recorded.stateHash(), result.session.stateHash());
+    }
+
+    @Test
+    public void testReplayDetectsDivergence() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ReplayDriver.record(99, "bot", new StringInputDevice(KEYS), out, 8);
+        byte[] log = out.toByteArray();
+        // flip a bit in the state hash of the final checkpoint
+        log[log.length - 1] ^= 1;
+        ReplayDriver.Result result = ReplayDriver.replay(new ByteArrayInputStream(log));
+        assertFalse(result.ok());
+    }
+}
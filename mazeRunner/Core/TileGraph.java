@@ -48,6 +48,10 @@ public class TileGraph extends EdgeWeightedGraph {
      * a hallway which consists of a 1 unit wide path and surrounding walls after processing the
      * path by truncating and building walls around it. */
     public Hallway connect(int srcRoomIdx, int tgtRoomIdx) {
+        GameEvents.RoomConnection event = new GameEvents.RoomConnection();
+        event.begin();
+        event.srcRoom = srcRoomIdx;
+        event.tgtRoom = tgtRoomIdx;
         Room srcRoom = rooms.get(srcRoomIdx);
         int srcV = convertArrayPosToV(srcRoom.center);
         Room tgtRoom = rooms.get(tgtRoomIdx);
@@ -67,6 +71,8 @@ public class TileGraph extends EdgeWeightedGraph {
         for (Integer v : dusp.pathTo(tgtV)) {
             path.add(v);
         }
+        event.pathLength = path.size();
+        event.commit();
         if (path.size() == 0) {
             return null;
         }
@@ -0,0 +1,84 @@
+package mazeRunner.Core;
+
+import mazeRunner.TileEngine.TETile;
+
+/**
+ * Immutable view of the game state at the end of a simulation tick, i.e. what the renderer needs
+ * to draw a frame. Snapshots are published by the simulation thread and read by the thread that
+ * renders, so they never share mutable state with the engine.
+ */
+final class WorldSnapshot {
+    /** Number of the tick at which the snapshot was taken. */
+    final long tick;
+    /** System.nanoTime() when the snapshot was taken. */
+    final long takenNanos;
+    /** Visible tiles, i.e. the field of view when lights are off. Must not be modified. */
+    final TETile[][] tiles;
+    /** Position of player. */
+    final Position playerPos;
+    /** Position of player in the previous snapshot, from which frames are interpolated. */
+    final Position previousPlayerPos;
+    /** Avatar of player. */
+    final TETile playerAvatar;
+    /** Tile under player. */
+    final TETile underPlayer;
+    /** Name of player. */
+    final String playerName;
+    /** Health of player. */
+    final int health;
+    /** Current level. */
+    final int level;
+
+    private WorldSnapshot(long tick, TETile[][] tiles, Position playerPos,
+                          Position previousPlayerPos, TETile playerAvatar, TETile underPlayer,
+                          String playerName, int health, int level) {
+        this.tick = tick;
+        this.takenNanos = System.nanoTime();
+        this.tiles = tiles;
+        this.playerPos = playerPos;
+        this.previousPlayerPos = previousPlayerPos;
+        this.playerAvatar = playerAvatar;
+        this.underPlayer = underPlayer;
+        this.playerName = playerName;
+        this.health = health;
+        this.level = level;
+    }
+
+    /**
+     * Take a snapshot of the game state held by an engine. Must be called on the thread that
+     * changes the game state.
+     * @param engine engine holding the game state
+     * @param tick number of the current tick
+     * @param previous previous snapshot, or null if this is the first one
+     * @return snapshot
+     */
+    static WorldSnapshot take(Engine engine, long tick, WorldSnapshot previous) {
+        GameMechanics gm = engine.gameMech;
+        TETile[][] visible = gm.fieldOfView(engine.tiles, engine.fovTiles());
+        TETile[][] copy = new TETile[visible.length][];
+        for (int x = 0; x < visible.length; x += 1) {
+            copy[x] = visible[x].clone();
+        }
+        Position previousPos = previous == null || previous.level != engine.level
+                ? gm.player.pos : previous.playerPos;
+        return new WorldSnapshot(tick, copy, gm.player.pos, previousPos, gm.player.avatar,
+                gm.player.lastTilePattern, gm.player.name, gm.player.health, engine.level);
+    }
+
+    /**
+     * Position at which player is drawn in a frame rendered a fraction of a tick after the
+     * snapshot was taken. Player slides from the previous position when they moved to an adjacent
+     * tile, and jumps otherwise, e.g. when teleporting.
+     * @param alpha fraction of a tick, between 0 and 1
+     * @return x and y coordinates of player
+     */
+    double[] interpolatedPlayerPos(double alpha) {
+        int dX = playerPos.getX() - previousPlayerPos.getX();
+        int dY = playerPos.getY() - previousPlayerPos.getY();
+        if (Math.abs(dX) + Math.abs(dY) != 1) {
+            return new double[] {playerPos.getX(), playerPos.getY()};
+        }
+        return new double[] {previousPlayerPos.getX() + dX * alpha,
+                previousPlayerPos.getY() + dY * alpha};
+    }
+}